@@ -0,0 +1,110 @@
+/**
+ * GameFX
+ * <p>
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2016 Tarun Boddupalli
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package me.tarunb.examplegame;
+
+import javafx.scene.image.Image;
+import me.tarunb.gamefx.entity.Entity;
+import me.tarunb.gamefx.entity.World;
+import me.tarunb.gamefx.graphics.Sprite;
+import me.tarunb.gamefx.physics.BodyStore;
+import me.tarunb.gamefx.physics.PolarVector;
+import me.tarunb.gamefx.physics.Position;
+import me.tarunb.gamefx.physics.SpatialGrid;
+import me.tarunb.gamefx.physics.Vector;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Checks that the per-tick physics path doesn't allocate, by counting
+ * the bytes allocated by the current thread while stepping worlds.
+ * Exits with a non-zero status if anything was allocated.
+ */
+public class AllocationCheck {
+
+    private static final int ENTITIES = 2_000;
+    private static final int WARMUP_TICKS = 2_000;
+    private static final int MEASURED_TICKS = 1_000;
+
+    public static void main(String[] args) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long self = Thread.currentThread().getId();
+        Image image = new Image(AllocationCheck.class.getResourceAsStream("/res/img/trump.png"));
+
+        World plain = new World();
+        World stored = new World(new BodyStore());
+        World colliding = new World(new BodyStore());
+        colliding.setCollisionGrid(new SpatialGrid<>(2));
+        World[] worlds = {plain, stored, colliding};
+        String[] names = {"entities", "body store", "body store + collisions"};
+
+        for (World world : worlds) {
+            for (int i = 0; i < ENTITIES; i++) {
+                new Entity(new Position(i % 100, i / 100), new Vector(1, 2), new Sprite(image)).addToWorld(world);
+            }
+        }
+
+        boolean failed = false;
+        for (int w = 0; w < worlds.length; w++) {
+            World world = worlds[w];
+            for (int i = 0; i < WARMUP_TICKS; i++) {
+                world.update(1 / 60.0);
+                world.sync(0.5);
+            }
+
+            long before = threads.getThreadAllocatedBytes(self);
+            for (int i = 0; i < MEASURED_TICKS; i++) {
+                world.update(1 / 60.0);
+                world.sync(0.5);
+            }
+            long allocated = threads.getThreadAllocatedBytes(self) - before;
+
+            System.out.printf("%-24s %8d bytes over %d ticks%n", names[w], allocated, MEASURED_TICKS);
+            failed |= allocated > 0;
+        }
+
+        Vector v = new Vector(3, 4);
+        Vector out = new Vector(0, 0);
+        PolarVector polar = new PolarVector(0, 0);
+        for (int i = 0; i < WARMUP_TICKS * 100; i++) {
+            v.normalizeInto(out).toPolarVectorInto(polar).toVectorInto(out);
+        }
+        long before = threads.getThreadAllocatedBytes(self);
+        for (int i = 0; i < MEASURED_TICKS * 100; i++) {
+            v.normalizeInto(out).toPolarVectorInto(polar).toVectorInto(out);
+        }
+        long allocated = threads.getThreadAllocatedBytes(self) - before;
+        System.out.printf("%-24s %8d bytes over %d calls%n", "vector *Into", allocated, MEASURED_TICKS * 100);
+        failed |= allocated > 0;
+
+        if (failed) {
+            System.out.println("FAILED: the per-tick path allocated");
+            System.exit(1);
+        }
+        System.out.println("OK");
+    }
+
+}
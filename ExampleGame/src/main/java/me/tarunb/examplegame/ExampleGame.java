@@ -1,6 +1,7 @@
 package me.tarunb.examplegame;
 
 import me.tarunb.gamefx.Game;
+import me.tarunb.gamefx.view.LoadingView;
 import me.tarunb.gamefx.view.ViewManager;
 
 public class ExampleGame {
@@ -8,6 +9,7 @@ public class ExampleGame {
     public static void main(String[] args) {
         Game.start(data -> {
             Game.setName("Example Game");
+            Game.setLoadingView(new LoadingView());
 
             View1 v1 = new View1();
 
@@ -0,0 +1,152 @@
+/**
+ * GameFX
+ * <p>
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2016 Tarun Boddupalli
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package me.tarunb.examplegame;
+
+import javafx.animation.AnimationTimer;
+import javafx.application.Application;
+import javafx.application.Platform;
+import javafx.scene.image.Image;
+import javafx.scene.paint.Color;
+import javafx.stage.Stage;
+import me.tarunb.gamefx.Game;
+import me.tarunb.gamefx.entity.Entity;
+import me.tarunb.gamefx.graphics.Sprite;
+import me.tarunb.gamefx.physics.Physics;
+import me.tarunb.gamefx.physics.Position;
+import me.tarunb.gamefx.physics.Vector;
+import me.tarunb.gamefx.view.RenderMode;
+import me.tarunb.gamefx.view.View;
+import me.tarunb.gamefx.view.ViewManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Compares the frame time of the node-per-entity and canvas render modes
+ * at 1k, 10k and 50k moving sprites.
+ * <p>
+ * Pulses are unthrottled, so the frame time isn't capped at 60 Hz. To measure
+ * the software pipeline, run with <code>-Dprism.order=sw</code>.
+ */
+public class RenderBenchmark extends Application {
+
+    private static final int[] COUNTS = {1_000, 10_000, 50_000};
+    private static final int WARMUP_FRAMES = 60;
+    private static final int MEASURED_FRAMES = 300;
+
+    private final List<String> results = new ArrayList<>();
+
+    public static void main(String[] args) {
+        if (System.getProperty("javafx.animation.fullspeed") == null) {
+            System.setProperty("javafx.animation.fullspeed", "true");
+        }
+        launch(args);
+    }
+
+    @Override
+    public void start(Stage stage) throws Exception {
+        Physics.GRAVITY = new Vector(0, 0);
+        Image image = new Image(getClass().getResourceAsStream("/res/img/trump.png"));
+
+        List<View> views = new ArrayList<>();
+        for (int count : COUNTS) {
+            for (RenderMode mode : RenderMode.values()) {
+                View view = new View(mode.name().toLowerCase() + "-" + count, Color.LIGHTBLUE);
+                view.setRenderMode(mode);
+                Random random = new Random(count);
+                for (int i = 0; i < count; i++) {
+                    new Bouncer(image, random).addToView(view);
+                }
+                ViewManager.registerView(view);
+                views.add(view);
+            }
+        }
+
+        stage.setTitle("Render benchmark");
+        stage.setWidth(Game.getWidth());
+        stage.setHeight(Game.getHeight());
+        stage.setResizable(false);
+        ViewManager.setView(views.get(0).getId(), stage);
+        stage.show();
+
+        new AnimationTimer() {
+            private int run = 0;
+            private int frame = 0;
+            private long start;
+
+            @Override
+            public void handle(long now) {
+                frame++;
+                if (frame == WARMUP_FRAMES) {
+                    start = now;
+                } else if (frame == WARMUP_FRAMES + MEASURED_FRAMES) {
+                    double ms = (now - start) / 1e6 / MEASURED_FRAMES;
+                    results.add(String.format("%-14s %8.3f ms/frame %8.1f fps", views.get(run).getId(), ms, 1000 / ms));
+
+                    frame = 0;
+                    if (++run == views.size()) {
+                        stop();
+                        results.forEach(System.out::println);
+                        Platform.exit();
+                    } else {
+                        ViewManager.setView(views.get(run).getId(), stage);
+                    }
+                }
+            }
+        }.start();
+    }
+
+    private static class Bouncer extends Entity {
+
+        private final double maxX = (Game.getWidth() - 64) / Physics.PPM;
+        private final double maxY = (Game.getHeight() - 64) / Physics.PPM;
+
+        Bouncer(Image image, Random random) {
+            super(new Position(1 + random.nextDouble() * 10, 1 + random.nextDouble() * 8),
+                    new Vector(random.nextDouble() * 4 - 2, random.nextDouble() * 4 - 2),
+                    new Sprite(image));
+        }
+
+        @Override
+        public void update(double dt) {
+            super.update(dt);
+            Vector v = getVelocity();
+            double x = getPosition().getX();
+            double y = getPosition().getY();
+            // bounce a metre off the edges, before the floor and wall clamps zero the velocity
+            if ((x >= maxX && v.getX() > 0) || (x <= 1 && v.getX() < 0)) {
+                v.setX(-v.getX());
+            }
+            if ((y >= maxY && v.getY() > 0) || (y <= 1 && v.getY() < 0)) {
+                v.setY(-v.getY());
+            }
+        }
+
+    }
+
+}
@@ -36,20 +36,18 @@ public class View1 extends View {
 
     public View1() {
         super("view1", Color.LIGHTBLUE);
+        getAssets().addImages("#/trump.png");
     }
 
     @Override
-    protected void onBeforeLoad() {
-        super.onBeforeLoad(); // must call super.onBeforeLoad(), otherwise game loop won't be started
+    protected void onPrepare() {
         SquareEntity square = new SquareEntity();
         square.setKeyHandler(new KeyHandler() {
             @Override
             public void pressed(KeyCode button, KeyCode modifier) {
-                if (button == KeyCode.SPACE) {
-                    square.setVelocity(new PolarVector(10, 45).toVector());
-                }
+                square.setVelocity(new PolarVector(10, 45).toVector());
             }
-        });
+        }, KeyCode.SPACE);
         square.addToView(this);
     }
 
@@ -0,0 +1,91 @@
+/**
+ * GameFX
+ * <p>
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2016 Tarun Boddupalli
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package me.tarunb.gamefx.benchmarks;
+
+import javafx.scene.image.Image;
+import me.tarunb.gamefx.entity.Entity;
+import me.tarunb.gamefx.entity.World;
+import me.tarunb.gamefx.graphics.Sprite;
+import me.tarunb.gamefx.physics.BodyStore;
+import me.tarunb.gamefx.physics.Position;
+import me.tarunb.gamefx.physics.Vector;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of one simulation tick (and one transform sync) of a world.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EntityUpdateBenchmark {
+
+    @Param({"1000", "10000"})
+    public int entities;
+
+    @Param({"false", "true"})
+    public boolean bodyStore;
+
+    private World world;
+
+    @Setup
+    public void setUp() {
+        world = bodyStore ? new World(new BodyStore()) : new World();
+        Image image = new Image(getClass().getResourceAsStream("/res/img/trump.png"));
+        for (int i = 0; i < entities; i++) {
+            new Entity(new Position(i % 100, 1 + i / 100), new Vector(1, 5), new Sprite(image)).addToWorld(world);
+        }
+    }
+
+    @Benchmark
+    public World update() {
+        world.update(1 / 60.0);
+        return world;
+    }
+
+    @Benchmark
+    public World updateAndSync() {
+        world.update(1 / 60.0);
+        world.sync(1);
+        return world;
+    }
+
+}
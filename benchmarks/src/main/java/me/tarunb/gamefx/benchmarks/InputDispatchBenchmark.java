@@ -0,0 +1,108 @@
+/**
+ * GameFX
+ * <p>
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2016 Tarun Boddupalli
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package me.tarunb.gamefx.benchmarks;
+
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.MouseButton;
+import me.tarunb.gamefx.entity.Entity;
+import me.tarunb.gamefx.entity.World;
+import me.tarunb.gamefx.graphics.Sprite;
+import me.tarunb.gamefx.input.InputDispatcher;
+import me.tarunb.gamefx.input.KeyHandler;
+import me.tarunb.gamefx.input.MouseHandler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of fanning a single input event out to the entities of a view,
+ * when only a handful of them handle input.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InputDispatchBenchmark {
+
+    private static final int HANDLERS = 8;
+
+    @Param({"100", "20000"})
+    public int entities;
+
+    private InputDispatcher dispatcher;
+    private Blackhole blackhole;
+
+    @Setup
+    public void setUp(Blackhole blackhole) {
+        this.blackhole = blackhole;
+        World world = new World();
+        dispatcher = world.getInputDispatcher();
+        for (int i = 0; i < entities; i++) {
+            Entity entity = new Entity(new Sprite((javafx.scene.image.Image) null));
+            if (i % (entities / HANDLERS) == 0) {
+                entity.setKeyHandler(new KeyHandler() {
+                    @Override
+                    public void pressed(KeyCode button, KeyCode modifier) {
+                        InputDispatchBenchmark.this.blackhole.consume(button);
+                    }
+                });
+                entity.setMouseHandler(new MouseHandler() {
+                    @Override
+                    public void pressed(MouseButton button, double x, double y) {
+                        InputDispatchBenchmark.this.blackhole.consume(button);
+                    }
+                });
+            }
+            entity.addToWorld(world);
+        }
+    }
+
+    @Benchmark
+    public void keyPressed() {
+        dispatcher.keyPressed(KeyCode.SPACE, null);
+    }
+
+    @Benchmark
+    public void mousePressAndRelease() {
+        dispatcher.mousePressed(MouseButton.PRIMARY, 1, 1);
+        dispatcher.mouseReleased(MouseButton.PRIMARY, 1, 1);
+    }
+
+}
@@ -0,0 +1,103 @@
+/**
+ * GameFX
+ * <p>
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2016 Tarun Boddupalli
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package me.tarunb.gamefx.benchmarks;
+
+import me.tarunb.gamefx.physics.PolarVector;
+import me.tarunb.gamefx.physics.Position;
+import me.tarunb.gamefx.physics.Vector;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the Vector and PolarVector conversions, in their allocating
+ * and <code>*Into</code> forms.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VectorBenchmark {
+
+    private final Vector vector = new Vector(3, 4);
+    private final PolarVector polar = new PolarVector(10, 45);
+
+    private final Vector outVector = new Vector(0, 0);
+    private final PolarVector outPolar = new PolarVector(0, 0);
+    private final Position outPosition = new Position(0, 0);
+
+    @Benchmark
+    public PolarVector toPolarVector() {
+        return vector.toPolarVector();
+    }
+
+    @Benchmark
+    public PolarVector toPolarVectorInto() {
+        return vector.toPolarVectorInto(outPolar);
+    }
+
+    @Benchmark
+    public Vector polarToVector() {
+        return polar.toVector();
+    }
+
+    @Benchmark
+    public Vector polarToVectorInto() {
+        return polar.toVectorInto(outVector);
+    }
+
+    @Benchmark
+    public Vector normalize() {
+        return vector.normalize();
+    }
+
+    @Benchmark
+    public Vector normalizeInto() {
+        return vector.normalizeInto(outVector);
+    }
+
+    @Benchmark
+    public Position toPosition() {
+        return vector.toPosition();
+    }
+
+    @Benchmark
+    public Position toPositionInto() {
+        return vector.toPositionInto(outPosition);
+    }
+
+}
@@ -27,7 +27,13 @@
 package me.tarunb.gamefx;
 
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.stage.Stage;
+import me.tarunb.gamefx.graphics.Updatable;
+import me.tarunb.gamefx.loop.HeadlessRunner;
+import me.tarunb.gamefx.metrics.FrameMetrics;
+import me.tarunb.gamefx.view.LoadingView;
+import me.tarunb.gamefx.view.View;
 import me.tarunb.gamefx.view.ViewManager;
 
 public class Game extends Application {
@@ -43,6 +49,8 @@ public class Game extends Application {
 
     private static Callback<Object> cb;
 
+    private static LoadingView loadingView;
+
     @Override
     public void start(Stage primaryStage) throws Exception {
         stage = primaryStage;
@@ -54,7 +62,18 @@ public class Game extends Application {
         stage.setHeight(height);
         stage.setResizable(false);
 
-        ViewManager.setView(ViewManager.getDefaultView().getId(), stage);
+        String id = ViewManager.getDefaultView().getId();
+        if (loadingView != null && !ViewManager.getDefaultView().isPrepared()) {
+            ViewManager.registerView(loadingView);
+            ViewManager.setView(loadingView.getId(), stage);
+            ViewManager.setViewWhenReady(id, stage, loadingView::setProgress).exceptionally(e -> {
+                // load it in the foreground instead, so the failure surfaces on the FX thread
+                Platform.runLater(() -> ViewManager.setView(id, stage));
+                return null;
+            });
+        } else {
+            ViewManager.setView(id, stage);
+        }
 
         stage.show();
     }
@@ -64,6 +83,44 @@ public class Game extends Application {
         Application.launch();
     }
 
+    /**
+     * Starts stepping the specified simulation on a background thread,
+     * without launching JavaFX. Use this to run a
+     * {@link me.tarunb.gamefx.entity.World} on machines with no display.
+     * @param simulation the simulation to step
+     * @param tickRate the number of ticks per second
+     * @return the started runner, which reports its throughput and can be stopped
+     */
+    public static HeadlessRunner startHeadless(Updatable simulation, double tickRate) {
+        HeadlessRunner runner = new HeadlessRunner(simulation, tickRate);
+        runner.start();
+        return runner;
+    }
+
+    /**
+     * Returns the frame timings of the view that is currently shown.
+     * @return the {@link FrameMetrics} of the current view, or null if no view is shown
+     * @see View#setMetricsEnabled(boolean)
+     */
+    public static FrameMetrics getMetrics() {
+        View view = ViewManager.getCurrentView();
+        return view == null ? null : view.getMetrics();
+    }
+
+    public static LoadingView getLoadingView() {
+        return loadingView;
+    }
+
+    /**
+     * Sets the view shown while the default view is preloaded when the
+     * game starts. Without one, the game window only appears once the
+     * default view is ready.
+     * @param loadingView the loading view, or null
+     */
+    public static void setLoadingView(LoadingView loadingView) {
+        Game.loadingView = loadingView;
+    }
+
     public static String getName() {
         return name;
     }
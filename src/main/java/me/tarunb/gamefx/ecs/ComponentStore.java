@@ -0,0 +1,189 @@
+/**
+ * GameFX
+ * <p>
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2016 Tarun Boddupalli
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package me.tarunb.gamefx.ecs;
+
+import me.tarunb.gamefx.Callback;
+
+import java.util.Arrays;
+
+/**
+ * The components of one type, kept in a sparse set: a dense array of
+ * components packed at the front, and a sparse array from entity index to
+ * dense slot. Adding, removing and looking up a component are constant
+ * time, and looping over every component of a type is a loop over a
+ * packed array.
+ * <p>
+ * Removing a component moves the last component into its slot, so
+ * the order of the dense array isn't stable.
+ * @param <T> the type of the components
+ */
+public class ComponentStore<T> {
+
+    private final Class<T> type;
+
+    private int[] sparse = new int[64];
+    private int[] dense = new int[64];
+    private Object[] components = new Object[64];
+    private int size = 0;
+
+    // changes whenever a component is added or removed, for cached queries
+    private int version = 0;
+
+    private Callback<T> onRemove;
+
+    ComponentStore(Class<T> type) {
+        this.type = type;
+        Arrays.fill(sparse, -1);
+    }
+
+    public Class<T> getType() {
+        return type;
+    }
+
+    /**
+     * Adds a component to an entity, replacing the one it had.
+     * @param entity the id of the entity
+     * @param component the component
+     * @return the component
+     */
+    public T add(int entity, T component) {
+        int index = entity & Registry.INDEX_MASK;
+        if (index >= sparse.length) {
+            int old = sparse.length;
+            sparse = Arrays.copyOf(sparse, Math.max(index + 1, old * 2));
+            Arrays.fill(sparse, old, sparse.length, -1);
+        }
+        int slot = sparse[index];
+        if (slot >= 0 && slot < size && (dense[slot] & Registry.INDEX_MASK) == index) {
+            dense[slot] = entity;
+            components[slot] = component;
+            return component;
+        }
+        if (size == dense.length) {
+            dense = Arrays.copyOf(dense, size * 2);
+            components = Arrays.copyOf(components, size * 2);
+        }
+        sparse[index] = size;
+        dense[size] = entity;
+        components[size] = component;
+        size++;
+        version++;
+        return component;
+    }
+
+    /**
+     * Returns the component of an entity.
+     * @param entity the id of the entity
+     * @return the component, or null if the entity doesn't have one
+     */
+    @SuppressWarnings("unchecked")
+    public T get(int entity) {
+        int slot = slotOf(entity);
+        return slot < 0 ? null : (T) components[slot];
+    }
+
+    public boolean has(int entity) {
+        return slotOf(entity) >= 0;
+    }
+
+    /**
+     * Removes the component of an entity.
+     * @param entity the id of the entity
+     * @return the removed component, or null if the entity didn't have one
+     */
+    @SuppressWarnings("unchecked")
+    public T remove(int entity) {
+        int slot = slotOf(entity);
+        if (slot < 0) {
+            return null;
+        }
+        T component = (T) components[slot];
+        int last = --size;
+        if (slot != last) {
+            dense[slot] = dense[last];
+            components[slot] = components[last];
+            sparse[dense[slot] & Registry.INDEX_MASK] = slot;
+        }
+        components[last] = null;
+        sparse[entity & Registry.INDEX_MASK] = -1;
+        version++;
+        if (onRemove != null) {
+            onRemove.run(component);
+        }
+        return component;
+    }
+
+    /**
+     * Returns the number of entities that have a component of this type.
+     * @return the size of this store
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the entity in a dense slot, for looping over the store.
+     * @param slot the slot, from <code>0</code> to {@link #size()}
+     * @return the id of the entity
+     */
+    public int getEntity(int slot) {
+        return dense[slot];
+    }
+
+    /**
+     * Returns the component in a dense slot, for looping over the store.
+     * @param slot the slot, from <code>0</code> to {@link #size()}
+     * @return the component
+     */
+    @SuppressWarnings("unchecked")
+    public T getAt(int slot) {
+        return (T) components[slot];
+    }
+
+    int getVersion() {
+        return version;
+    }
+
+    /**
+     * Sets the callback run with each component that is removed, including
+     * when its entity is destroyed. Adapters use this to take nodes off the view.
+     * @param onRemove the callback, or null
+     */
+    public void setOnRemove(Callback<T> onRemove) {
+        this.onRemove = onRemove;
+    }
+
+    private int slotOf(int entity) {
+        int index = entity & Registry.INDEX_MASK;
+        if (index >= sparse.length) {
+            return -1;
+        }
+        int slot = sparse[index];
+        return slot >= 0 && dense[slot] == entity ? slot : -1;
+    }
+
+}
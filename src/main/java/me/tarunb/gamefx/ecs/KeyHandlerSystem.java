@@ -0,0 +1,86 @@
+/**
+ * GameFX
+ * <p>
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2016 Tarun Boddupalli
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package me.tarunb.gamefx.ecs;
+
+import javafx.scene.input.KeyCode;
+import me.tarunb.gamefx.input.InputDispatcher;
+import me.tarunb.gamefx.input.InputState;
+import me.tarunb.gamefx.input.KeyHandler;
+
+/**
+ * Lets registry entities use the existing {@link KeyHandler} interface:
+ * every entity with a <code>KeyHandler</code> component hears about the
+ * keys pressed and released since the last tick, from the input snapshot
+ * of a dispatcher. Typed events aren't part of the snapshot, so they
+ * aren't delivered.
+ * <p>
+ * Add handlers with <code>registry.add(entity, KeyHandler.class, handler)</code>.
+ */
+public class KeyHandlerSystem implements ComponentSystem {
+
+    private static final KeyCode[] KEYS = KeyCode.values();
+
+    private final InputDispatcher input;
+    private InputState last = InputState.EMPTY;
+
+    public KeyHandlerSystem(InputDispatcher input) {
+        this.input = input;
+    }
+
+    @Override
+    public void update(Registry registry, double dt) {
+        InputState state = input.getState();
+        InputState last = this.last;
+        this.last = state;
+        if (state == last) {
+            return;
+        }
+        ComponentStore<KeyHandler> handlers = registry.store(KeyHandler.class);
+        if (handlers.size() == 0) {
+            return;
+        }
+
+        KeyCode modifier = state.isKeyDown(KeyCode.CONTROL) ? KeyCode.CONTROL
+                : state.isKeyDown(KeyCode.SHIFT) ? KeyCode.SHIFT
+                : state.isKeyDown(KeyCode.ALT) ? KeyCode.ALT : null;
+        for (KeyCode key : KEYS) {
+            boolean down = state.isKeyDown(key);
+            if (down == last.isKeyDown(key)) {
+                continue;
+            }
+            for (int i = 0, n = handlers.size(); i < n; i++) {
+                KeyHandler handler = handlers.getAt(i);
+                if (down) {
+                    handler.pressed(key, modifier);
+                } else {
+                    handler.released(key);
+                }
+            }
+        }
+    }
+
+}
@@ -0,0 +1,70 @@
+/**
+ * GameFX
+ * <p>
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2016 Tarun Boddupalli
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package me.tarunb.gamefx.ecs;
+
+import me.tarunb.gamefx.physics.BodyStore;
+import me.tarunb.gamefx.physics.Physics;
+
+/**
+ * Integrates every {@link Motion} in one loop, the same way
+ * {@link me.tarunb.gamefx.entity.Entity#update(double)} integrates a
+ * single entity: semi-implicit Euler under {@link Physics#GRAVITY},
+ * clamped to the floor and left wall at <code>0</code>, and slowed by
+ * {@link Physics#FRICTION} on the floor.
+ */
+public class MotionSystem implements ComponentSystem {
+
+    @Override
+    public void update(Registry registry, double dt) {
+        ComponentStore<Motion> motions = registry.store(Motion.class);
+        double gx = Physics.GRAVITY.getX() * dt;
+        double gy = Physics.GRAVITY.getY() * dt;
+        double friction = Physics.FRICTION * Math.abs(Physics.GRAVITY.getY()) * dt;
+
+        for (int i = 0, n = motions.size(); i < n; i++) {
+            Motion m = motions.getAt(i);
+            m.vx += gx + m.ax * dt;
+            m.vy += gy + m.ay * dt;
+            m.x += m.vx * dt;
+            m.y += m.vy * dt;
+            if (m.x < 0) {
+                m.x = 0;
+                m.vx = 0;
+            }
+            if (m.y <= 0) {
+                if (m.y < 0) {
+                    m.y = 0;
+                    m.vy = 0;
+                }
+                if (m.vy <= 0) {
+                    m.vx = BodyStore.applyFriction(m.vx, friction);
+                }
+            }
+        }
+    }
+
+}
@@ -0,0 +1,124 @@
+/**
+ * GameFX
+ * <p>
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2016 Tarun Boddupalli
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package me.tarunb.gamefx.ecs;
+
+import java.util.Arrays;
+
+/**
+ * The entities that have every one of a set of component types. The
+ * matching entities are cached, and only found again once a component of
+ * one of the types has been added or removed, so systems that run every
+ * tick don't search the stores every tick.
+ * @see Registry#query(Class[])
+ */
+public class Query {
+
+    private final ComponentStore<?>[] stores;
+    private final int[] versions;
+    private boolean valid = false;
+
+    private int[] entities = new int[64];
+    private int size = 0;
+
+    Query(ComponentStore<?>[] stores) {
+        this.stores = stores;
+        this.versions = new int[stores.length];
+    }
+
+    /**
+     * Returns the number of matching entities.
+     * @return the size of this query
+     */
+    public int size() {
+        refresh();
+        return size;
+    }
+
+    /**
+     * Returns a matching entity.
+     * @param i the index of the entity, from <code>0</code> to {@link #size()}
+     * @return the id of the entity
+     */
+    public int getEntity(int i) {
+        return entities[i];
+    }
+
+    /**
+     * Returns the cached array of matching entities, for looping over in a
+     * tight loop. Only the first {@link #size()} ids are valid, and the array
+     * is reused, so it must not be kept past the current tick.
+     * @return the matching entities
+     */
+    public int[] getEntities() {
+        refresh();
+        return entities;
+    }
+
+    private void refresh() {
+        if (valid) {
+            boolean changed = false;
+            for (int i = 0; i < stores.length; i++) {
+                if (stores[i].getVersion() != versions[i]) {
+                    changed = true;
+                    break;
+                }
+            }
+            if (!changed) {
+                return;
+            }
+        }
+
+        // walk the smallest store, and look the entities up in the others
+        ComponentStore<?> smallest = stores[0];
+        for (ComponentStore<?> store : stores) {
+            if (store.size() < smallest.size()) {
+                smallest = store;
+            }
+        }
+        int n = 0;
+        outer:
+        for (int slot = 0, count = smallest.size(); slot < count; slot++) {
+            int entity = smallest.getEntity(slot);
+            for (ComponentStore<?> store : stores) {
+                if (store != smallest && !store.has(entity)) {
+                    continue outer;
+                }
+            }
+            if (n == entities.length) {
+                entities = Arrays.copyOf(entities, n * 2);
+            }
+            entities[n++] = entity;
+        }
+        size = n;
+
+        for (int i = 0; i < stores.length; i++) {
+            versions[i] = stores[i].getVersion();
+        }
+        valid = true;
+    }
+
+}
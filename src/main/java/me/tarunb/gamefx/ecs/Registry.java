@@ -0,0 +1,349 @@
+/**
+ * GameFX
+ * <p>
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2016 Tarun Boddupalli
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package me.tarunb.gamefx.ecs;
+
+import me.tarunb.gamefx.entity.Entity;
+import me.tarunb.gamefx.entity.TickListener;
+import me.tarunb.gamefx.entity.World;
+import me.tarunb.gamefx.graphics.Updatable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An entity-component-system world. Entities are plain <code>int</code>
+ * ids, their data lives in one {@link ComponentStore} per component type,
+ * and behaviour lives in {@link ComponentSystem}s that loop over the
+ * components they need.
+ * <p>
+ * A registry can run on its own, or be stepped with a classic
+ * {@link World} by adding it as a {@link TickListener}, as
+ * {@link me.tarunb.gamefx.view.View#getRegistry()} does. Classic entities
+ * can join it with {@link #attach(Entity)}, so components and systems can
+ * be added to existing entities one at a time.
+ */
+public class Registry implements Updatable, TickListener {
+
+    static final int INDEX_BITS = 20;
+    static final int INDEX_MASK = (1 << INDEX_BITS) - 1;
+    private static final int GENERATION_MASK = (1 << (31 - INDEX_BITS)) - 1;
+
+    /**
+     * The id that no entity ever has.
+     */
+    public static final int NULL = -1;
+
+    // the generation of each index, bumped when its entity is destroyed, so stale ids are detected
+    private int[] generations = new int[64];
+    private boolean[] alive = new boolean[64];
+    private int[] free = new int[64];
+    private int freeCount = 0;
+    private int nextIndex = 0;
+    private int count = 0;
+
+    private final Map<Class<?>, ComponentStore<?>> stores = new HashMap<>();
+    private final Map<List<Class<?>>, Query> queries = new HashMap<>();
+    private final List<ComponentSystem> systems = new ArrayList<>();
+
+    private int[] pendingDestroy = new int[16];
+    private int pendingCount = 0;
+
+    private final Map<Entity, Integer> attached = new IdentityHashMap<>();
+
+    /**
+     * Creates an entity with no components.
+     * @return the id of the new entity
+     */
+    public int create() {
+        int index;
+        if (freeCount > 0) {
+            index = free[--freeCount];
+        } else {
+            index = nextIndex++;
+            if (index > INDEX_MASK) {
+                throw new IllegalStateException("A registry can hold at most " + (INDEX_MASK + 1) + " entities");
+            }
+            if (index == generations.length) {
+                generations = Arrays.copyOf(generations, index * 2);
+                alive = Arrays.copyOf(alive, index * 2);
+            }
+        }
+        alive[index] = true;
+        count++;
+        return generations[index] << INDEX_BITS | index;
+    }
+
+    /**
+     * Returns whether an entity exists. Ids of destroyed entities stay
+     * invalid, even once their index is reused.
+     * @param entity the id of the entity
+     * @return true if the entity exists
+     */
+    public boolean isAlive(int entity) {
+        if (entity < 0) {
+            return false;
+        }
+        int index = entity & INDEX_MASK;
+        return index < nextIndex && alive[index] && generations[index] == entity >>> INDEX_BITS;
+    }
+
+    /**
+     * Destroys an entity and removes all of its components.
+     * @param entity the id of the entity
+     */
+    public void destroy(int entity) {
+        if (!isAlive(entity)) {
+            return;
+        }
+        for (ComponentStore<?> store : stores.values()) {
+            Object component = store.remove(entity);
+            if (component instanceof Entity) {
+                attached.remove(component);
+            }
+        }
+        int index = entity & INDEX_MASK;
+        alive[index] = false;
+        generations[index] = (generations[index] + 1) & GENERATION_MASK;
+        if (freeCount == free.length) {
+            free = Arrays.copyOf(free, freeCount * 2);
+        }
+        free[freeCount++] = index;
+        count--;
+    }
+
+    /**
+     * Destroys an entity once the system that is running has finished, so
+     * systems can destroy entities while they loop over them.
+     * @param entity the id of the entity
+     */
+    public void destroyLater(int entity) {
+        if (pendingCount == pendingDestroy.length) {
+            pendingDestroy = Arrays.copyOf(pendingDestroy, pendingCount * 2);
+        }
+        pendingDestroy[pendingCount++] = entity;
+    }
+
+    /**
+     * Destroys every entity, so the remove callbacks of the stores run for
+     * every component. Systems and stores are kept.
+     */
+    public void clear() {
+        for (int index = 0; index < nextIndex; index++) {
+            if (alive[index]) {
+                destroy(generations[index] << INDEX_BITS | index);
+            }
+        }
+        pendingCount = 0;
+    }
+
+    /**
+     * Returns the number of entities in this registry.
+     * @return the number of entities
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Returns the store for a component type, creating it if needed.
+     * @param type the component type
+     * @param <T> the component type
+     * @return the store for the type
+     */
+    @SuppressWarnings("unchecked")
+    public <T> ComponentStore<T> store(Class<T> type) {
+        ComponentStore<T> store = (ComponentStore<T>) stores.get(type);
+        if (store == null) {
+            store = new ComponentStore<>(type);
+            stores.put(type, store);
+        }
+        return store;
+    }
+
+    /**
+     * Adds a component to an entity, stored under its own class.
+     * @param entity the id of the entity
+     * @param component the component
+     * @param <T> the component type
+     * @return the component
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T add(int entity, T component) {
+        return add(entity, (Class<T>) component.getClass(), component);
+    }
+
+    /**
+     * Adds a component to an entity, stored under the specified type,
+     * such as an interface it implements.
+     * @param entity the id of the entity
+     * @param type the type to store the component under
+     * @param component the component
+     * @param <T> the component type
+     * @return the component
+     */
+    public <T> T add(int entity, Class<T> type, T component) {
+        if (!isAlive(entity)) {
+            throw new IllegalArgumentException("Entity " + entity + " doesn't exist");
+        }
+        return store(type).add(entity, component);
+    }
+
+    /**
+     * Returns a component of an entity.
+     * @param entity the id of the entity
+     * @param type the component type
+     * @param <T> the component type
+     * @return the component, or null if the entity doesn't have one
+     */
+    public <T> T get(int entity, Class<T> type) {
+        ComponentStore<?> store = stores.get(type);
+        return store == null ? null : type.cast(store.get(entity));
+    }
+
+    public boolean has(int entity, Class<?> type) {
+        ComponentStore<?> store = stores.get(type);
+        return store != null && store.has(entity);
+    }
+
+    /**
+     * Removes a component from an entity.
+     * @param entity the id of the entity
+     * @param type the component type
+     * @param <T> the component type
+     * @return the removed component, or null if the entity didn't have one
+     */
+    public <T> T remove(int entity, Class<T> type) {
+        ComponentStore<?> store = stores.get(type);
+        return store == null ? null : type.cast(store.remove(entity));
+    }
+
+    /**
+     * Returns the cached query for the entities that have every one of the
+     * specified component types. The same query is returned every time it is
+     * asked for, so systems can ask for it every tick.
+     * @param types the component types
+     * @return the query
+     */
+    public Query query(Class<?>... types) {
+        if (types.length == 0) {
+            throw new IllegalArgumentException("A query needs at least one component type");
+        }
+        List<Class<?>> key = Arrays.asList(types);
+        Query query = queries.get(key);
+        if (query == null) {
+            ComponentStore<?>[] matched = new ComponentStore<?>[types.length];
+            for (int i = 0; i < types.length; i++) {
+                matched[i] = store(types[i]);
+            }
+            query = new Query(matched);
+            queries.put(new ArrayList<>(key), query);
+        }
+        return query;
+    }
+
+    /**
+     * Adds a system, which runs after the systems added before it.
+     * @param system the system
+     */
+    public void addSystem(ComponentSystem system) {
+        systems.add(system);
+    }
+
+    public void removeSystem(ComponentSystem system) {
+        systems.remove(system);
+    }
+
+    /**
+     * Runs every system once, in order.
+     * @param dt The amount of elapsed time, in seconds.
+     */
+    @Override
+    public void update(double dt) {
+        for (int i = 0; i < systems.size(); i++) {
+            systems.get(i).update(this, dt);
+            flushDestroyed();
+        }
+    }
+
+    @Override
+    public void afterTick(World world, double dt) {
+        update(dt);
+    }
+
+    /**
+     * Adds a classic entity to this registry, as an entity whose
+     * {@link Entity} component is the entity itself. Systems can then query
+     * it alongside other components while it keeps its class, sprite and
+     * handlers.
+     * @param entity the classic entity
+     * @return the id of the entity in this registry
+     */
+    public int attach(Entity entity) {
+        Integer id = attached.get(entity);
+        if (id != null) {
+            return id;
+        }
+        int created = create();
+        add(created, Entity.class, entity);
+        attached.put(entity, created);
+        return created;
+    }
+
+    /**
+     * Returns the id of an attached classic entity.
+     * @param entity the classic entity
+     * @return the id, or {@link #NULL} if it isn't attached
+     */
+    public int getId(Entity entity) {
+        Integer id = attached.get(entity);
+        return id == null ? NULL : id;
+    }
+
+    /**
+     * Destroys the registry entity of an attached classic entity, along with
+     * its other components. The classic entity itself isn't touched.
+     * @param entity the classic entity
+     */
+    public void detach(Entity entity) {
+        Integer id = attached.remove(entity);
+        if (id != null) {
+            destroy(id);
+        }
+    }
+
+    private void flushDestroyed() {
+        for (int i = 0; i < pendingCount; i++) {
+            destroy(pendingDestroy[i]);
+        }
+        pendingCount = 0;
+    }
+
+}
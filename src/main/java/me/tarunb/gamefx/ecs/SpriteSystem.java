@@ -0,0 +1,86 @@
+/**
+ * GameFX
+ * <p>
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2016 Tarun Boddupalli
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package me.tarunb.gamefx.ecs;
+
+import javafx.scene.image.ImageView;
+import javafx.scene.layout.Pane;
+import me.tarunb.gamefx.graphics.Sprite;
+import me.tarunb.gamefx.physics.Physics;
+import me.tarunb.gamefx.view.View;
+import me.tarunb.gamefx.view.Viewport;
+
+/**
+ * Draws registry entities with the existing {@link Sprite} class: every
+ * entity with a {@link Motion} and a {@link Sprite} has the sprite's node
+ * shown in a view, at its position relative to the view's viewport. The
+ * node is taken off the view when the sprite is removed or the entity is
+ * destroyed. Must run on the FX thread.
+ */
+public class SpriteSystem implements ComponentSystem {
+
+    private final View view;
+    private Registry registry;
+
+    public SpriteSystem(View view) {
+        this.view = view;
+    }
+
+    @Override
+    public void update(Registry registry, double dt) {
+        if (this.registry != registry) {
+            this.registry = registry;
+            Pane pane = view.getPane();
+            registry.store(Sprite.class).setOnRemove(sprite -> pane.getChildren().remove(sprite.getImageView()));
+        }
+
+        ComponentStore<Motion> motions = registry.store(Motion.class);
+        ComponentStore<Sprite> sprites = registry.store(Sprite.class);
+        Query query = registry.query(Motion.class, Sprite.class);
+        int[] entities = query.getEntities();
+        Pane pane = view.getPane();
+        Viewport viewport = view.getViewport();
+        double originX = viewport.getX(), originY = viewport.getY();
+
+        for (int i = 0, n = query.size(); i < n; i++) {
+            int entity = entities[i];
+            Motion motion = motions.get(entity);
+            ImageView node = sprites.get(entity).getImageView();
+            if (node.getParent() != pane) {
+                view.addNode(node);
+            }
+            double tx = (motion.x - originX) * Physics.PPM;
+            double ty = -(motion.y - originY) * Physics.PPM;
+            if (node.getTranslateX() != tx) {
+                node.setTranslateX(tx);
+            }
+            if (node.getTranslateY() != ty) {
+                node.setTranslateY(ty);
+            }
+        }
+    }
+
+}
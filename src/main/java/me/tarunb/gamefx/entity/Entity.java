@@ -26,16 +26,28 @@
 
 package me.tarunb.gamefx.entity;
 
+import javafx.beans.binding.Bindings;
+import javafx.beans.property.DoubleProperty;
+import javafx.beans.property.SimpleDoubleProperty;
 import javafx.scene.image.Image;
 import me.tarunb.gamefx.graphics.Sprite;
 import me.tarunb.gamefx.graphics.Updatable;
 import me.tarunb.gamefx.input.KeyHandler;
 import me.tarunb.gamefx.input.MouseHandler;
+import me.tarunb.gamefx.physics.AABB;
+import me.tarunb.gamefx.physics.Body;
+import me.tarunb.gamefx.physics.BodyStore;
 import me.tarunb.gamefx.physics.Physics;
 import me.tarunb.gamefx.physics.Position;
 import me.tarunb.gamefx.physics.Vector;
+import me.tarunb.gamefx.tiles.TileMap;
 import me.tarunb.gamefx.view.View;
 import javafx.scene.Group;
+import javafx.scene.input.KeyCode;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
 
 /**
  * An entity is an object in a view that can have motion,
@@ -45,12 +57,52 @@ public class Entity extends Group implements Updatable {
 
     private Position position;
     private Vector velocity;
+    private Vector acceleration = new Vector(0, 0);
     private final Sprite sprite;
 
+    // set while this entity's physics state lives in its world's BodyStore
+    private Body body;
+
+    // the entity's own physics state, kept while it lives in a store, so unbinding doesn't allocate
+    private Position localPosition;
+    private Vector localVelocity, localAcceleration;
+
+    // mass, damping and the forces and impulses applied since the last step, used outside of a store
+    private double inverseMass = 1;
+    private double damping = 0;
+    private double forceX, forceY, impulseX, impulseY;
+    // scratch for colliding with the world's tile map, allocated on first use
+    private double[] tileState;
+
+    // true while the entity sits unused in an EntityPool
+    boolean pooled = false;
+
+    // time skipped by a throttling UpdatePolicy, handed over at the next update
+    double deferredDt = 0;
+    // time the world's UpdatePolicy gave this tick's update, 0 to skip it
+    double stepDt = 0;
+    // true while a viewport has hidden the entity
+    boolean culled = false;
+
+    // consecutive resting ticks, and the state the entity fell asleep in
+    private int restTicks = 0;
+    private double restX, restY, restAx, restAy;
+
+    // position before the last step, and the last translation written to the node
+    private double prevX, prevY;
+    private double renderX = Double.NaN, renderY = Double.NaN;
+    private boolean liveTransform = false;
+    // the viewport origin a live transform is relative to, created when it is first turned on
+    private DoubleProperty liveOriginX, liveOriginY;
+    private int layer = 0;
+
     private View view;
+    private World world;
 
     private MouseHandler mouseHandler;
     private KeyHandler keyHandler;
+    private Set<KeyCode> keyCodes;
+    private CollisionHandler collisionHandler;
 
     /**
      * Constructs an entity with the specified position, velocity,
@@ -63,20 +115,13 @@ public class Entity extends Group implements Updatable {
         super(sprite.getImageView());
 
         this.position = position;
-        setTranslateX(position.getX() * Physics.PPM);
-        setTranslateY(-position.getY() * Physics.PPM);
-
-        this.velocity = velocity;
+        // keep our own copy, the caller's vector may be shared or immutable, like Vector.ZERO
+        this.velocity = velocity.copy();
         this.sprite = sprite;
 
-        position.xProperty().addListener((observable, oldValue, newValue) -> {
-            translateXProperty().set(newValue.doubleValue() * Physics.PPM);
-        });
-
-        position.yProperty().addListener((observable, oldValue, newValue) -> {
-            translateYProperty().set(newValue.doubleValue() * Physics.PPM);
-        });
-
+        prevX = position.getX();
+        prevY = position.getY();
+        syncTransform(1, 0, 0);
     }
 
     /**
@@ -107,14 +152,45 @@ public class Entity extends Group implements Updatable {
      * Should you override this method in a subclass of {@link Entity},
      * you must always called <code>super.update(dt)</code>, else the physics
      * will fail to update.
+     * <p>
+     * If the containing world uses a {@link BodyStore}, the physics of this
+     * entity have already been integrated in batch before this method is
+     * called, and this method does nothing.
+     * <p>
+     * Otherwise, the entity is integrated with semi-implicit Euler, stopped
+     * by the solid tiles of its world's {@link TileMap}, and slowed by
+     * {@link Physics#FRICTION} while it rests on the ground or a tile.
+     * <p>
+     * If the containing world lets entities sleep, a sleeping entity isn't
+     * integrated until its position, velocity or acceleration changes.
      * @param dt The amount of elapsed time, in seconds, since the last frame.
      */
     @Override
     public void update(double dt) {
+        if (body != null) {
+            return;
+        }
 
-        // v      =     v_0           +        a        * t
-        velocity.setX(velocity.getX() + Physics.GRAVITY.getX() * dt);
-        velocity.setY(velocity.getY() + Physics.GRAVITY.getY() * dt);
+        World world = this.world;
+        boolean canSleep = world != null && world.isSleepEnabled();
+        if (canSleep && restTicks >= world.getSleepDelay()) {
+            if (velocity.getX() == 0 && velocity.getY() == 0
+                    && position.getX() == restX && position.getY() == restY
+                    && acceleration.getX() == restAx && acceleration.getY() == restAy) {
+                return;
+            }
+            restTicks = 0;
+        }
+
+        double v0x = velocity.getX() + impulseX * inverseMass;
+        double v0y = velocity.getY() + impulseY * inverseMass;
+        double ax = Physics.GRAVITY.getX() + acceleration.getX() + forceX * inverseMass - damping * v0x;
+        double ay = Physics.GRAVITY.getY() + acceleration.getY() + forceY * inverseMass - damping * v0y;
+        forceX = forceY = impulseX = impulseY = 0;
+
+        // v      =  v_0 +  a * t
+        velocity.setX(v0x + ax * dt);
+        velocity.setY(v0y + ay * dt);
 
         double xPos = position.getX();
         xPos += velocity.getX() * dt;
@@ -130,9 +206,73 @@ public class Entity extends Group implements Updatable {
             velocity.setY(0);
         }
 
+        boolean grounded = yPos == 0;
+        TileMap tiles = world != null ? world.getTileMap() : null;
+        if (tiles != null) {
+            double[] state = tileState;
+            if (state == null) {
+                state = tileState = new double[4];
+            }
+            state[0] = xPos;
+            state[1] = yPos;
+            state[2] = velocity.getX();
+            state[3] = velocity.getY();
+            int hit = tiles.collide(prevX, prevY, sprite.getWidth() / Physics.PPM, sprite.getHeight() / Physics.PPM, state);
+            if (hit != 0) {
+                xPos = state[0];
+                yPos = state[1];
+                velocity.setX(state[2]);
+                velocity.setY(state[3]);
+                grounded |= (hit & TileMap.LANDED) != 0;
+            }
+        }
+
+        if (grounded && velocity.getY() <= 0) {
+            velocity.setX(BodyStore.applyFriction(velocity.getX(),
+                    Physics.FRICTION * Math.abs(Physics.GRAVITY.getY()) * dt));
+        }
+
         position.setX(xPos);
         position.setY(yPos);
 
+        if (canSleep) {
+            double speed = world.getSleepSpeed();
+            if (velocity.magnitudeSquared() < speed * speed) {
+                if (++restTicks >= world.getSleepDelay()) {
+                    velocity = copyInto(velocity, Vector.ZERO);
+                    restX = xPos;
+                    restY = yPos;
+                    restAx = acceleration.getX();
+                    restAy = acceleration.getY();
+                }
+            } else {
+                restTicks = 0;
+            }
+        }
+    }
+
+    /**
+     * Returns whether this entity is asleep. Sleeping entities rest in
+     * place, and their physics aren't integrated.
+     * @return true if this entity is asleep.
+     * @see World#setSleepEnabled(boolean)
+     */
+    public boolean isSleeping() {
+        if (body != null) {
+            return body.isSleeping();
+        }
+        return world != null && world.isSleepEnabled() && restTicks >= world.getSleepDelay();
+    }
+
+    /**
+     * Wakes this entity, if it was asleep.
+     */
+    public void wake() {
+        if (body != null) {
+            body.wake();
+        } else {
+            restTicks = 0;
+        }
     }
 
     /**
@@ -143,17 +283,33 @@ public class Entity extends Group implements Updatable {
     public void addToView(View view) {
         view.addEntity(this);
         this.view = view;
+        this.world = view.getWorld();
     }
 
     /**
-     * Removes this entity from its containing view, if it exists.
+     * Adds this entity directly to the specified world, without a view.
+     * This is used for headless simulations; entities that should be
+     * displayed must be added with {@link #addToView} instead.
+     *
+     * @param world The world to which this entity should be added
+     */
+    public void addToWorld(World world) {
+        world.addEntity(this);
+        this.world = world;
+    }
+
+    /**
+     * Removes this entity from its containing view or world, if it exists.
      * Otherwise fails silently.
      */
     public void removeFromParentView() {
         if (view != null) {
             view.removeEntity(this);
             this.view = null;
+        } else if (world != null) {
+            world.removeEntity(this);
         }
+        this.world = null;
     }
 
     /**
@@ -166,6 +322,16 @@ public class Entity extends Group implements Updatable {
         return view;
     }
 
+    /**
+     * Returns the world that contains this entity.
+     * If this entity has no containing world, this method returns null.
+     *
+     * @return the world that contains this entity.
+     */
+    public World getWorld() {
+        return world;
+    }
+
     /**
      * Returns the position of this entity in its containing view.
      *
@@ -182,6 +348,13 @@ public class Entity extends Group implements Updatable {
     public void setPosition(Position position) {
         this.position.setX(position.getX());
         this.position.setY(position.getY());
+        if (body != null) {
+            body.resetPrevious();
+        } else {
+            prevX = position.getX();
+            prevY = position.getY();
+        }
+        wake();
     }
 
     /**
@@ -194,10 +367,325 @@ public class Entity extends Group implements Updatable {
 
     /**
      * Sets the velocity of this entity.
+     * The components are copied, so the entity doesn't keep the vector.
      * @param velocity the new velocity of the entity
      */
     public void setVelocity(Vector velocity) {
-        this.velocity = velocity;
+        this.velocity = copyInto(this.velocity, velocity);
+        wake();
+    }
+
+    /**
+     * Returns the acceleration of this entity, which is applied
+     * on top of {@link Physics#GRAVITY}.
+     * @return the acceleration of this entity.
+     */
+    public Vector getAcceleration() {
+        return acceleration;
+    }
+
+    /**
+     * Sets the acceleration of this entity, which is applied
+     * on top of {@link Physics#GRAVITY}.
+     * The components are copied, so the entity doesn't keep the vector.
+     * @param acceleration the new acceleration of the entity
+     */
+    public void setAcceleration(Vector acceleration) {
+        this.acceleration = copyInto(this.acceleration, acceleration);
+        wake();
+    }
+
+    /**
+     * Returns the mass of this entity. Defaults to <code>1</code>.
+     * @return the mass, in kilograms
+     */
+    public double getMass() {
+        return body != null ? body.getMass() : 1 / inverseMass;
+    }
+
+    /**
+     * Sets the mass of this entity, which scales the effect of the forces
+     * and impulses applied to it.
+     * @param mass the new mass, in kilograms
+     */
+    public void setMass(double mass) {
+        if (!(mass > 0)) {
+            throw new IllegalArgumentException("mass must be positive");
+        }
+        if (body != null) {
+            body.setMass(mass);
+        } else {
+            inverseMass = 1 / mass;
+        }
+    }
+
+    /**
+     * Returns the linear damping of this entity. Defaults to <code>0</code>.
+     * @return the damping, per second
+     */
+    public double getDamping() {
+        return body != null ? body.getDamping() : damping;
+    }
+
+    /**
+     * Sets the linear damping of this entity, which slows it down by
+     * <code>damping * velocity</code> every second, like air resistance.
+     * @param damping the new damping, per second
+     */
+    public void setDamping(double damping) {
+        if (damping < 0) {
+            throw new IllegalArgumentException("damping cannot be negative");
+        }
+        if (body != null) {
+            body.setDamping(damping);
+        } else {
+            this.damping = damping;
+        }
+        wake();
+    }
+
+    /**
+     * Applies a force to this entity during the next physics step.
+     * Forces add up until they are applied, then they are cleared.
+     * @param fx the x component, in newtons
+     * @param fy the y component, in newtons
+     */
+    public void applyForce(double fx, double fy) {
+        if (body != null) {
+            body.applyForce(fx, fy);
+        } else {
+            forceX += fx;
+            forceY += fy;
+            wake();
+        }
+    }
+
+    /**
+     * Applies an impulse to this entity at the start of the next physics
+     * step, which changes its velocity by <code>impulse / mass</code>.
+     * @param jx the x component, in newton seconds
+     * @param jy the y component, in newton seconds
+     */
+    public void applyImpulse(double jx, double jy) {
+        if (body != null) {
+            body.applyImpulse(jx, jy);
+        } else {
+            impulseX += jx;
+            impulseY += jy;
+            wake();
+        }
+    }
+
+    /**
+     * Returns the handle to this entity's slot in its world's {@link BodyStore},
+     * or null if its physics state isn't stored there.
+     * @return the body of this entity.
+     */
+    public Body getBody() {
+        return body;
+    }
+
+    /**
+     * Moves the physics state of this entity into the specified store.
+     * After this, {@link #getPosition()}, {@link #getVelocity()} and
+     * {@link #getAcceleration()} are views over the store.
+     */
+    void bind(BodyStore store) {
+        localPosition = position;
+        localVelocity = velocity;
+        localAcceleration = acceleration;
+        body = store.allocate(position, velocity, acceleration);
+        body.setMass(1 / inverseMass);
+        body.setDamping(damping);
+        if (forceX != 0 || forceY != 0) {
+            body.applyForce(forceX, forceY);
+        }
+        if (impulseX != 0 || impulseY != 0) {
+            body.applyImpulse(impulseX, impulseY);
+        }
+        forceX = forceY = impulseX = impulseY = 0;
+        position = body.getPosition();
+        velocity = body.getVelocity();
+        acceleration = body.getAcceleration();
+        updateTransformBinding();
+    }
+
+    /**
+     * Copies the physics state of this entity out of its store,
+     * and frees its slot.
+     */
+    void unbind() {
+        prevX = body.getPreviousX();
+        prevY = body.getPreviousY();
+        localPosition.setX(position.getX());
+        localPosition.setY(position.getY());
+        localVelocity = copyInto(localVelocity, velocity);
+        localAcceleration = copyInto(localAcceleration, acceleration);
+        inverseMass = 1 / body.getMass();
+        damping = body.getDamping();
+        position = localPosition;
+        velocity = localVelocity;
+        acceleration = localAcceleration;
+        body.getStore().free(body);
+        body = null;
+        updateTransformBinding();
+    }
+
+    /**
+     * Copies <code>from</code> into <code>out</code>, or into a new vector if
+     * <code>out</code> can't be changed.
+     */
+    private static Vector copyInto(Vector out, Vector from) {
+        return out.isImmutable() ? from.copy() : out.set(from);
+    }
+
+    /**
+     * Called by {@link EntityPool} when this entity is released, after it
+     * has been removed from its view. Stops the entity, so it doesn't
+     * carry its motion over to its next use.
+     */
+    void recycle() {
+        velocity = copyInto(velocity, Vector.ZERO);
+        acceleration = copyInto(acceleration, Vector.ZERO);
+        if (body != null) {
+            body.clearForces();
+        }
+        forceX = forceY = impulseX = impulseY = 0;
+        prevX = position.getX();
+        prevY = position.getY();
+        wake();
+    }
+
+    /**
+     * Remembers the current position as the position before the next step,
+     * for interpolation. Entities in a {@link BodyStore} are handled by the store.
+     */
+    void savePrevious() {
+        if (body == null) {
+            prevX = position.getX();
+            prevY = position.getY();
+        }
+    }
+
+    /**
+     * Copies the position of this entity into the translation of its node,
+     * interpolated between the previous and current step by <code>alpha</code>,
+     * relative to the point <code>(originX, originY)</code> of the world, which
+     * is drawn at the bottom-left of the view.
+     * The node is only touched if the translation actually changed.
+     */
+    void syncTransform(double alpha, double originX, double originY) {
+        if (liveTransform && body == null) {
+            // the binding places the node, it only needs to follow the viewport
+            liveOriginX.set(originX);
+            liveOriginY.set(originY);
+            return;
+        }
+
+        double tx = (getInterpolatedX(alpha) - originX) * Physics.PPM;
+        double ty = -(getInterpolatedY(alpha) - originY) * Physics.PPM;
+        if (tx != renderX) {
+            setTranslateX(tx);
+            renderX = tx;
+        }
+        if (ty != renderY) {
+            setTranslateY(ty);
+            renderY = ty;
+        }
+    }
+
+    /**
+     * Returns the x coordinate of this entity, interpolated between its
+     * position before the last step and its current position.
+     * @param alpha how far to interpolate, from <code>0</code> to <code>1</code>.
+     * @return the interpolated x coordinate.
+     */
+    public double getInterpolatedX(double alpha) {
+        double x = position.getX();
+        if (alpha >= 1) {
+            return x;
+        }
+        double px = body != null ? body.getPreviousX() : prevX;
+        return px + (x - px) * alpha;
+    }
+
+    /**
+     * Returns the y coordinate of this entity, interpolated between its
+     * position before the last step and its current position.
+     * @param alpha how far to interpolate, from <code>0</code> to <code>1</code>.
+     * @return the interpolated y coordinate.
+     */
+    public double getInterpolatedY(double alpha) {
+        double y = position.getY();
+        if (alpha >= 1) {
+            return y;
+        }
+        double py = body != null ? body.getPreviousY() : prevY;
+        return py + (y - py) * alpha;
+    }
+
+    /**
+     * Returns the layer of this entity. When a view draws its entities
+     * onto a canvas, entities on higher layers are drawn on top.
+     * @return the layer of this entity.
+     */
+    public int getLayer() {
+        return layer;
+    }
+
+    /**
+     * Sets the layer of this entity. When a view draws its entities
+     * onto a canvas, entities on higher layers are drawn on top.
+     * @param layer the new layer of this entity.
+     */
+    public void setLayer(int layer) {
+        this.layer = layer;
+    }
+
+    /**
+     * Returns whether the translation of this entity's node is bound
+     * to the properties of its position.
+     * @return true if the translation is bound to the position.
+     */
+    public boolean isLiveTransform() {
+        return liveTransform;
+    }
+
+    /**
+     * Sets whether the translation of this entity's node is bound to the
+     * properties of its position, so that every change to the position is
+     * reflected immediately. By default, the translation is only updated
+     * once per frame by the containing view, which is much cheaper.
+     * <p>
+     * The properties of a position in a {@link BodyStore} are not live, so
+     * this has no effect while the entity is in a world with a store.
+     * @param liveTransform whether to bind the translation to the position.
+     */
+    public void setLiveTransform(boolean liveTransform) {
+        this.liveTransform = liveTransform;
+        updateTransformBinding();
+    }
+
+    private void updateTransformBinding() {
+        translateXProperty().unbind();
+        translateYProperty().unbind();
+        if (liveTransform && body == null) {
+            if (liveOriginX == null) {
+                liveOriginX = new SimpleDoubleProperty();
+                liveOriginY = new SimpleDoubleProperty();
+            }
+            // the same placement as syncTransform, so both modes draw the entity in the same spot
+            Position position = this.position;
+            translateXProperty().bind(Bindings.createDoubleBinding(
+                    () -> (position.getX() - liveOriginX.get()) * Physics.PPM,
+                    position.xProperty(), liveOriginX));
+            translateYProperty().bind(Bindings.createDoubleBinding(
+                    () -> -(position.getY() - liveOriginY.get()) * Physics.PPM,
+                    position.yProperty(), liveOriginY));
+        } else {
+            renderX = Double.NaN;
+            renderY = Double.NaN;
+        }
     }
 
 
@@ -227,6 +715,9 @@ public class Entity extends Group implements Updatable {
      */
     public void setMouseHandler(MouseHandler mouseHandler) {
         this.mouseHandler = mouseHandler;
+        if (world != null) {
+            world.getInputDispatcher().register(this);
+        }
     }
 
     /**
@@ -245,6 +736,78 @@ public class Entity extends Group implements Updatable {
      */
     public void setKeyHandler(KeyHandler keyHandler) {
         this.keyHandler = keyHandler;
+        this.keyCodes = null;
+        if (world != null) {
+            world.getInputDispatcher().register(this);
+        }
+    }
+
+    /**
+     * Sets the new event handler for keyboard events on this entity,
+     * which only receives events for the specified keys. Entities that
+     * only care about a few keys should use this, so other keys don't
+     * cost them anything.
+     * @param keyHandler the new {@link KeyHandler} for this entity.
+     * @param first a key to receive events for
+     * @param rest more keys to receive events for
+     */
+    public void setKeyHandler(KeyHandler keyHandler, KeyCode first, KeyCode... rest) {
+        this.keyHandler = keyHandler;
+        this.keyCodes = Collections.unmodifiableSet(EnumSet.of(first, rest));
+        if (world != null) {
+            world.getInputDispatcher().register(this);
+        }
     }
-}
 
+    /**
+     * Returns the keys the keyboard handler of this entity receives
+     * events for, or null if it receives events for every key.
+     * @return the subscribed keys, or null for all keys.
+     */
+    public Set<KeyCode> getKeyCodes() {
+        return keyCodes;
+    }
+
+    /**
+     * Returns the handler for collisions of this entity with other
+     * entities, or null if it doesn't exist.
+     * @return the {@link CollisionHandler} for this entity
+     */
+    public CollisionHandler getCollisionHandler() {
+        return collisionHandler;
+    }
+
+    /**
+     * Sets the new handler for collisions of this entity with other
+     * entities. Collisions are only detected in worlds that have a
+     * collision grid, see {@link World#setCollisionGrid}.
+     * @param collisionHandler the new {@link CollisionHandler} for this entity.
+     */
+    public void setCollisionHandler(CollisionHandler collisionHandler) {
+        this.collisionHandler = collisionHandler;
+    }
+
+    /**
+     * Called by the containing world once per tick for every other entity
+     * whose bounds overlap the bounds of this entity. By default this
+     * calls the {@link CollisionHandler} of this entity, if it exists.
+     * @param other the entity that was collided with
+     */
+    protected void onCollision(Entity other) {
+        if (collisionHandler != null) {
+            collisionHandler.collided(other);
+        }
+    }
+
+    /**
+     * Computes the bounds of this entity, in metres, from its position
+     * (the bottom-left corner) and the size of its sprite.
+     * @param out the box to store the bounds in
+     * @return <code>out</code>
+     */
+    public AABB getBounds(AABB out) {
+        double x = position.getX();
+        double y = position.getY();
+        return out.set(x, y, x + sprite.getWidth() / Physics.PPM, y + sprite.getHeight() / Physics.PPM);
+    }
+}
@@ -0,0 +1,194 @@
+/**
+ * GameFX
+ * <p>
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2016 Tarun Boddupalli
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package me.tarunb.gamefx.entity;
+
+import me.tarunb.gamefx.Callback;
+import me.tarunb.gamefx.view.View;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Keeps released entities around so they can be used again, instead of
+ * constructing a new entity, with its nodes and properties, every time
+ * one is spawned. Useful for bullets, particles and anything else that
+ * is created and removed at a high rate.
+ * <pre>
+ * EntityPool&lt;Bullet&gt; bullets = new EntityPool&lt;&gt;(() -&gt; new Bullet(sprite));
+ * Bullet bullet = bullets.acquire(view);
+ * bullet.setPosition(gun);
+ * ...
+ * bullets.release(bullet);
+ * </pre>
+ * A released entity is removed from its view or world, and stopped. Any
+ * other state, such as its handlers, is kept, and can be reset with
+ * {@link #setOnRelease} or {@link #setOnAcquire}.
+ * <p>
+ * A pool is not thread safe, and should be used from the thread that
+ * steps the world.
+ *
+ * @param <T> the type of entity in the pool
+ */
+public class EntityPool<T extends Entity> {
+
+    public static final int DEFAULT_MAX_FREE = 1024;
+
+    private final Supplier<T> factory;
+    private final int maxFree;
+    private final List<T> free;
+
+    private Callback<T> onAcquire;
+    private Callback<T> onRelease;
+
+    private int created = 0;
+
+    public EntityPool(Supplier<T> factory) {
+        this(factory, DEFAULT_MAX_FREE);
+    }
+
+    /**
+     * Constructs a pool that creates entities with <code>factory</code>.
+     * @param factory creates a new entity when the pool is empty
+     * @param maxFree the most released entities that are kept, the rest are
+     *                left to the garbage collector
+     */
+    public EntityPool(Supplier<T> factory, int maxFree) {
+        if (maxFree < 0) {
+            throw new IllegalArgumentException("maxFree cannot be negative");
+        }
+        this.factory = factory;
+        this.maxFree = maxFree;
+        this.free = new ArrayList<>(Math.min(maxFree, 64));
+    }
+
+    /**
+     * Returns a released entity, or a new one if there are none.
+     * The entity is not in any view or world.
+     * @return an entity that is ready to use
+     */
+    public T acquire() {
+        T entity;
+        if (free.isEmpty()) {
+            entity = factory.get();
+            created++;
+        } else {
+            entity = free.remove(free.size() - 1);
+            entity.pooled = false;
+        }
+        if (onAcquire != null) {
+            onAcquire.run(entity);
+        }
+        return entity;
+    }
+
+    /**
+     * Returns an entity from the pool, and adds it to the specified view.
+     * @param view the view to add the entity to
+     * @return the entity
+     */
+    public T acquire(View view) {
+        T entity = acquire();
+        entity.addToView(view);
+        return entity;
+    }
+
+    /**
+     * Returns an entity from the pool, and adds it to the specified world.
+     * @param world the world to add the entity to
+     * @return the entity
+     */
+    public T acquire(World world) {
+        T entity = acquire();
+        entity.addToWorld(world);
+        return entity;
+    }
+
+    /**
+     * Removes an entity from its view or world, and gives it back to the pool.
+     * @param entity the entity to release
+     * @throws IllegalStateException if the entity was already released
+     */
+    public void release(T entity) {
+        if (entity.pooled) {
+            throw new IllegalStateException("Entity was already released");
+        }
+        entity.removeFromParentView();
+        entity.recycle();
+        if (onRelease != null) {
+            onRelease.run(entity);
+        }
+        if (free.size() < maxFree) {
+            entity.pooled = true;
+            free.add(entity);
+        }
+    }
+
+    /**
+     * Creates entities until at least <code>count</code> are waiting in
+     * the pool, so the first spawns don't have to construct them.
+     * @param count the number of free entities to have
+     */
+    public void prefill(int count) {
+        count = Math.min(count, maxFree);
+        while (free.size() < count) {
+            T entity = factory.get();
+            created++;
+            entity.pooled = true;
+            free.add(entity);
+        }
+    }
+
+    public void setOnAcquire(Callback<T> onAcquire) {
+        this.onAcquire = onAcquire;
+    }
+
+    /**
+     * Sets a callback that resets an entity when it's released.
+     * @param onRelease the reset callback
+     */
+    public void setOnRelease(Callback<T> onRelease) {
+        this.onRelease = onRelease;
+    }
+
+    /**
+     * Returns the number of released entities waiting to be used again.
+     * @return the number of free entities
+     */
+    public int getFreeCount() {
+        return free.size();
+    }
+
+    /**
+     * Returns the number of entities this pool has constructed.
+     * @return the number of created entities
+     */
+    public int getCreatedCount() {
+        return created;
+    }
+
+}
@@ -0,0 +1,50 @@
+/**
+ * GameFX
+ * <p>
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2016 Tarun Boddupalli
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package me.tarunb.gamefx.entity;
+
+/**
+ * Listens to the ticks of a {@link World}, see {@link World#addTickListener}.
+ * Listeners are called on the thread that steps the world.
+ */
+public interface TickListener {
+
+    /**
+     * Called at the start of a tick, before input events are delivered.
+     * @param world the world that is stepped
+     * @param dt the amount of simulated time the tick covers, in seconds
+     */
+    default void beforeTick(World world, double dt) {}
+
+    /**
+     * Called at the end of a tick, after entities have been updated and
+     * collisions have been handled.
+     * @param world the world that was stepped
+     * @param dt the amount of simulated time the tick covered, in seconds
+     */
+    default void afterTick(World world, double dt) {}
+
+}
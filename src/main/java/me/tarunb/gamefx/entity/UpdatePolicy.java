@@ -0,0 +1,60 @@
+/**
+ * GameFX
+ * <p>
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2016 Tarun Boddupalli
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package me.tarunb.gamefx.entity;
+
+/**
+ * Decides how often each entity in a {@link World} is updated, so that
+ * entities far from the action can be updated less often, or not at all.
+ * See {@link World#setUpdatePolicy(UpdatePolicy)}.
+ * <p>
+ * An entity that is updated every <code>n</code> ticks receives the time
+ * of all <code>n</code> ticks in one update. A suspended entity is frozen,
+ * and the time it misses is dropped. The same goes for an entity's body
+ * in the world's {@link me.tarunb.gamefx.physics.BodyStore}, which is only
+ * integrated on the ticks the entity is updated.
+ * <p>
+ * The policy is called for every entity on the thread that steps the
+ * world, before anything is moved, even when entities are updated in
+ * parallel.
+ */
+@FunctionalInterface
+public interface UpdatePolicy {
+
+    /** Update the entity every tick. */
+    int EVERY_TICK = 1;
+
+    /** Don't update the entity at all. */
+    int SUSPENDED = 0;
+
+    /**
+     * Returns how often an entity should be updated.
+     * @param entity the entity about to be updated
+     * @return the number of ticks between updates, or {@link #SUSPENDED}
+     */
+    int getInterval(Entity entity);
+
+}
@@ -0,0 +1,879 @@
+/**
+ * GameFX
+ * <p>
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2016 Tarun Boddupalli
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package me.tarunb.gamefx.entity;
+
+import me.tarunb.gamefx.graphics.ConcurrentUpdatable;
+import me.tarunb.gamefx.graphics.Updatable;
+import me.tarunb.gamefx.input.InputDispatcher;
+import me.tarunb.gamefx.input.InputState;
+import me.tarunb.gamefx.metrics.FrameMetrics;
+import me.tarunb.gamefx.physics.AABB;
+import me.tarunb.gamefx.physics.Body;
+import me.tarunb.gamefx.physics.BodyStore;
+import me.tarunb.gamefx.physics.Integrator;
+import me.tarunb.gamefx.physics.Physics;
+import me.tarunb.gamefx.physics.SpatialGrid;
+import me.tarunb.gamefx.physics.Vector;
+import me.tarunb.gamefx.tiles.TileMap;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * A world holds the entities of a simulation and steps them.
+ * A world has no dependency on a JavaFX stage or scene, so it can be
+ * driven by a {@link me.tarunb.gamefx.view.View} or headless,
+ * e.g. by a {@link me.tarunb.gamefx.loop.HeadlessRunner}.
+ * <p>
+ * Optionally, a world can keep the physics state of its entities in a
+ * {@link BodyStore}, so that all of them are integrated in one pass
+ * over primitive arrays instead of one entity at a time.
+ * <p>
+ * If a world has a {@link SpatialGrid collision grid}, the grid is
+ * rebuilt from the bounds of every entity after each tick, overlapping
+ * pairs are collected, and {@link Entity#onCollision} is called on both
+ * entities of every pair.
+ * <p>
+ * Updates can optionally be split across cores with a {@link ForkJoinPool},
+ * see {@link #setUpdatePool}. Only entities that implement
+ * {@link ConcurrentUpdatable} are updated in parallel.
+ */
+public class World implements Updatable {
+
+    // Concurrent so you can add entities from input handlers
+    private final ConcurrentLinkedQueue<Entity> entities = new ConcurrentLinkedQueue<>();
+
+    // array copy of the entities, only rebuilt when they change, so stepping doesn't allocate iterators
+    private Entity[] snapshot = new Entity[64];
+    private int snapshotSize = 0;
+    private volatile boolean snapshotDirty = false;
+    // kept separately, because counting a ConcurrentLinkedQueue walks it
+    private final AtomicInteger entityCount = new AtomicInteger();
+
+    private final InputDispatcher inputDispatcher = new InputDispatcher(this);
+
+    private BodyStore bodyStore;
+
+    private SpatialGrid<Entity> collisionGrid;
+    private final AABB bounds = new AABB();
+
+    private TileMap tileMap;
+    private final double[] tileState = new double[4];
+    private final AABB cullBounds = new AABB();
+    private Entity[] collisionsA = new Entity[64];
+    private Entity[] collisionsB = new Entity[64];
+    private int collisionCount = 0;
+    private final BiConsumer<Entity, Entity> recordCollision = this::recordCollision;
+
+    public static final int DEFAULT_PARALLEL_THRESHOLD = 1024;
+
+    private ForkJoinPool updatePool;
+    private int parallelThreshold = DEFAULT_PARALLEL_THRESHOLD;
+    private Entity[] parallelEntities = new Entity[64];
+    private Entity[] serialEntities = new Entity[64];
+
+    private long ticks = 0;
+
+    private FrameMetrics metrics;
+
+    private UpdatePolicy updatePolicy;
+
+    public static final double DEFAULT_SLEEP_SPEED = 0.05;
+    public static final int DEFAULT_SLEEP_DELAY = 30;
+
+    private boolean sleepEnabled = false;
+    private double sleepSpeed = DEFAULT_SLEEP_SPEED;
+    private int sleepDelay = DEFAULT_SLEEP_DELAY;
+
+    // replaced on change, so ticks don't allocate iterators
+    private volatile TickListener[] tickListeners = new TickListener[0];
+
+    /**
+     * Constructs a world whose entities keep their own physics state.
+     */
+    public World() {
+    }
+
+    /**
+     * Constructs a world whose entities keep their physics state in
+     * the specified store.
+     * @param bodyStore the store for the physics state of the entities.
+     */
+    public World(BodyStore bodyStore) {
+        this.bodyStore = bodyStore;
+        applySleep();
+    }
+
+    /**
+     * Steps every entity in this world by <code>dt</code> seconds.
+     * @param dt The amount of simulated time, in seconds.
+     */
+    @Override
+    public void update(double dt) {
+        TickListener[] listeners = tickListeners;
+        for (TickListener listener : listeners) {
+            listener.beforeTick(this, dt);
+        }
+        FrameMetrics metrics = this.metrics;
+        long start = metrics != null ? System.nanoTime() : 0;
+        inputDispatcher.processEvents();
+        if (metrics != null) {
+            long now = System.nanoTime();
+            metrics.add(FrameMetrics.Phase.INPUT, now - start);
+            start = now;
+        }
+        boolean scheduled = schedule(dt);
+        if (updatePool != null) {
+            updateParallel(scheduled, dt);
+        } else {
+            if (bodyStore != null) {
+                bodyStore.savePrevious();
+                bodyStore.integrate(dt);
+            }
+            Entity[] snapshot = snapshot();
+            for (int i = 0, n = snapshotSize; i < n; i++) {
+                step(snapshot[i], scheduled ? snapshot[i].stepDt : dt);
+            }
+        }
+        if (tileMap != null && bodyStore != null) {
+            collideBodiesWithTiles(scheduled, dt);
+        }
+        if (collisionGrid != null) {
+            detectCollisions();
+        }
+        ticks++;
+        for (TickListener listener : listeners) {
+            listener.afterTick(this, dt);
+        }
+        if (metrics != null) {
+            metrics.add(FrameMetrics.Phase.UPDATE, System.nanoTime() - start);
+            metrics.tick();
+        }
+    }
+
+    public FrameMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Sets the metrics that the time spent delivering input and updating
+     * is added to, or null to stop measuring.
+     * @param metrics the metrics to add to
+     */
+    public void setMetrics(FrameMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    public synchronized void addTickListener(TickListener listener) {
+        TickListener[] listeners = Arrays.copyOf(tickListeners, tickListeners.length + 1);
+        listeners[listeners.length - 1] = listener;
+        tickListeners = listeners;
+    }
+
+    public synchronized void removeTickListener(TickListener listener) {
+        for (int i = 0; i < tickListeners.length; i++) {
+            if (tickListeners[i] == listener) {
+                TickListener[] listeners = new TickListener[tickListeners.length - 1];
+                System.arraycopy(tickListeners, 0, listeners, 0, i);
+                System.arraycopy(tickListeners, i + 1, listeners, i, listeners.length - i);
+                tickListeners = listeners;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Integrates the body store and updates every {@link ConcurrentUpdatable}
+     * entity in chunks on the update pool, then updates the remaining
+     * entities serially on the calling thread.
+     */
+    private void updateParallel(boolean scheduled, double dt) {
+        int parallel = 0, serial = 0;
+        Entity[] snapshot = snapshot();
+        for (int i = 0, n = snapshotSize; i < n; i++) {
+            Entity entity = snapshot[i];
+            if (entity instanceof ConcurrentUpdatable && !entity.isLiveTransform()) {
+                if (parallel == parallelEntities.length) {
+                    parallelEntities = Arrays.copyOf(parallelEntities, parallel * 2);
+                }
+                parallelEntities[parallel++] = entity;
+            } else {
+                if (serial == serialEntities.length) {
+                    serialEntities = Arrays.copyOf(serialEntities, serial * 2);
+                }
+                serialEntities[serial++] = entity;
+            }
+        }
+
+        if (bodyStore != null) {
+            bodyStore.savePrevious();
+            updatePool.invoke(new IntegrateTask(bodyStore, dt, 0, bodyStore.size(), parallelThreshold));
+        }
+        updatePool.invoke(new UpdateTask(parallelEntities, scheduled, dt, 0, parallel, parallelThreshold));
+
+        for (int i = 0; i < serial; i++) {
+            step(serialEntities[i], scheduled ? serialEntities[i].stepDt : dt);
+        }
+
+        Arrays.fill(parallelEntities, 0, parallel, null);
+        Arrays.fill(serialEntities, 0, serial, null);
+    }
+
+    /**
+     * Decides, before anything moves, how much time each entity is updated
+     * by this tick, as often as the update policy allows. Throttled entities
+     * are spread over the ticks of their interval by their index. Bodies in
+     * the store are given the same time, so the body of a suspended or
+     * throttled entity isn't integrated, put to sleep or collided with
+     * tiles in between either.
+     * @return true if the entities were scheduled, false if every entity is updated by dt
+     */
+    private boolean schedule(double dt) {
+        UpdatePolicy policy = updatePolicy;
+        BodyStore bodyStore = this.bodyStore;
+        if (policy == null) {
+            if (bodyStore != null) {
+                bodyStore.unschedule();
+            }
+            return false;
+        }
+        if (bodyStore != null) {
+            bodyStore.schedule(dt);
+        }
+        Entity[] snapshot = snapshot();
+        for (int i = 0, n = snapshotSize; i < n; i++) {
+            Entity entity = snapshot[i];
+            int interval = policy.getInterval(entity);
+            if (interval <= UpdatePolicy.SUSPENDED) {
+                entity.deferredDt = 0;
+                entity.stepDt = 0;
+            } else if (interval > 1 && (ticks + i) % interval != 0) {
+                entity.deferredDt += dt;
+                entity.stepDt = 0;
+            } else {
+                entity.stepDt = entity.deferredDt + dt;
+                entity.deferredDt = 0;
+            }
+            Body body = entity.getBody();
+            if (body != null && body.getStore() == bodyStore) {
+                body.setStepTime(entity.stepDt);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Updates one entity by the time it was scheduled, skipping it if that is 0.
+     */
+    private static void step(Entity entity, double elapsed) {
+        entity.savePrevious();
+        if (elapsed > 0) {
+            entity.update(elapsed);
+        }
+    }
+
+    public UpdatePolicy getUpdatePolicy() {
+        return updatePolicy;
+    }
+
+    /**
+     * Sets the policy that decides how often each entity is updated.
+     * Passing null, the default, updates every entity every tick. Bodies
+     * in the body store follow the policy of their entity.
+     * @param updatePolicy the new update policy, or null
+     */
+    public void setUpdatePolicy(UpdatePolicy updatePolicy) {
+        this.updatePolicy = updatePolicy;
+    }
+
+    /**
+     * Returns the pool used to update entities in parallel, or null if
+     * entities are updated serially.
+     * @return the update pool for this world.
+     */
+    public ForkJoinPool getUpdatePool() {
+        return updatePool;
+    }
+
+    /**
+     * Sets the pool used to update entities in parallel. Passing null,
+     * the default, updates every entity serially on the thread that steps
+     * the world.
+     * <p>
+     * In parallel mode the body store is integrated in chunks, then every
+     * entity implementing {@link ConcurrentUpdatable} is updated in chunks,
+     * and finally all other entities are updated serially.
+     * @param updatePool the pool to update entities on, e.g. {@link ForkJoinPool#commonPool()}
+     */
+    public void setUpdatePool(ForkJoinPool updatePool) {
+        this.updatePool = updatePool;
+    }
+
+    public int getParallelThreshold() {
+        return parallelThreshold;
+    }
+
+    /**
+     * Sets the largest number of entities updated as one task in parallel mode.
+     * @param parallelThreshold the chunk size, at least 1
+     */
+    public void setParallelThreshold(int parallelThreshold) {
+        if (parallelThreshold < 1) {
+            throw new IllegalArgumentException("parallelThreshold must be at least 1");
+        }
+        this.parallelThreshold = parallelThreshold;
+    }
+
+    private void detectCollisions() {
+        collisionGrid.clear();
+        Entity[] snapshot = snapshot();
+        for (int i = 0, n = snapshotSize; i < n; i++) {
+            collisionGrid.insert(snapshot[i], snapshot[i].getBounds(bounds));
+        }
+
+        Arrays.fill(collisionsA, 0, collisionCount, null);
+        Arrays.fill(collisionsB, 0, collisionCount, null);
+        collisionCount = 0;
+        collisionGrid.findPairs(recordCollision);
+
+        if (sleepEnabled) {
+            for (int i = 0; i < collisionCount; i++) {
+                wakeOnContact(collisionsA[i], collisionsB[i]);
+                wakeOnContact(collisionsB[i], collisionsA[i]);
+            }
+        }
+
+        // handlers run after every pair is found, so they can safely add or remove entities
+        for (int i = 0; i < collisionCount; i++) {
+            collisionsA[i].onCollision(collisionsB[i]);
+            collisionsB[i].onCollision(collisionsA[i]);
+        }
+    }
+
+    /**
+     * Wakes a sleeping entity that is touched by a moving one. Resting
+     * entities don't wake each other, so piles can fall asleep.
+     */
+    private void wakeOnContact(Entity sleeper, Entity other) {
+        if (sleeper.isSleeping() && !other.isSleeping()
+                && other.getVelocity().magnitudeSquared() >= sleepSpeed * sleepSpeed) {
+            sleeper.wake();
+        }
+    }
+
+    public boolean isSleepEnabled() {
+        return sleepEnabled;
+    }
+
+    /**
+     * Sets whether entities that come to rest are put to sleep. An entity
+     * falls asleep once it has moved slower than the sleep speed for the
+     * sleep delay, and is stopped. Sleeping entities aren't integrated, so
+     * resting piles cost almost nothing per tick.
+     * <p>
+     * An entity wakes when its position, velocity or acceleration is
+     * changed, or when a moving entity collides with it. Changes to
+     * {@link me.tarunb.gamefx.physics.Physics#GRAVITY} don't wake entities,
+     * use {@link #wakeAll()}. Defaults to false.
+     * @param sleepEnabled true to let entities sleep
+     */
+    public void setSleepEnabled(boolean sleepEnabled) {
+        this.sleepEnabled = sleepEnabled;
+        if (!sleepEnabled) {
+            wakeAll();
+        }
+        applySleep();
+    }
+
+    public double getSleepSpeed() {
+        return sleepSpeed;
+    }
+
+    /**
+     * Sets the speed below which an entity is resting.
+     * @param sleepSpeed the speed, in metres per second
+     */
+    public void setSleepSpeed(double sleepSpeed) {
+        if (sleepSpeed <= 0) {
+            throw new IllegalArgumentException("sleepSpeed must be positive");
+        }
+        this.sleepSpeed = sleepSpeed;
+        applySleep();
+    }
+
+    public int getSleepDelay() {
+        return sleepDelay;
+    }
+
+    /**
+     * Sets the number of consecutive resting ticks before an entity falls asleep.
+     * @param sleepDelay the number of ticks, at least 1
+     */
+    public void setSleepDelay(int sleepDelay) {
+        if (sleepDelay < 1) {
+            throw new IllegalArgumentException("sleepDelay must be at least 1");
+        }
+        this.sleepDelay = sleepDelay;
+        applySleep();
+    }
+
+    /**
+     * Wakes every entity in this world.
+     */
+    public void wakeAll() {
+        for (Entity entity : entities) {
+            entity.wake();
+        }
+    }
+
+    private void applySleep() {
+        if (bodyStore != null) {
+            bodyStore.setSleep(sleepEnabled ? sleepSpeed : 0, sleepDelay);
+        }
+    }
+
+    private void recordCollision(Entity a, Entity b) {
+        if (collisionCount == collisionsA.length) {
+            collisionsA = Arrays.copyOf(collisionsA, collisionCount * 2);
+            collisionsB = Arrays.copyOf(collisionsB, collisionCount * 2);
+        }
+        collisionsA[collisionCount] = a;
+        collisionsB[collisionCount] = b;
+        collisionCount++;
+    }
+
+    /**
+     * Returns the tile map whose solid tiles the entities of this world
+     * collide with, or null if there is none.
+     * @return the {@link TileMap} for this world.
+     */
+    public TileMap getTileMap() {
+        return tileMap;
+    }
+
+    /**
+     * Sets the tile map whose solid tiles the entities of this world collide
+     * with. Entities that keep their own physics state collide in
+     * {@link Entity#update(double)}; entities in a {@link BodyStore} collide
+     * after the store has been integrated.
+     * @param tileMap the new tile map, or null
+     */
+    public void setTileMap(TileMap tileMap) {
+        this.tileMap = tileMap;
+        wakeAll();
+    }
+
+    /**
+     * Stops the bodies in the store at the solid tiles they ran into this
+     * tick, without waking them, so bodies resting on tiles can fall asleep.
+     */
+    private void collideBodiesWithTiles(boolean scheduled, double dt) {
+        TileMap tileMap = this.tileMap;
+        double[] state = tileState;
+        double deceleration = Physics.FRICTION * Math.abs(Physics.GRAVITY.getY());
+        Entity[] snapshot = snapshot();
+        for (int i = 0, n = snapshotSize; i < n; i++) {
+            Entity entity = snapshot[i];
+            Body body = entity.getBody();
+            double elapsed = scheduled ? entity.stepDt : dt;
+            if (body == null || elapsed == 0 || body.isSleeping()) {
+                continue;
+            }
+            AABB box = entity.getBounds(bounds);
+            Vector velocity = body.getVelocity();
+            state[0] = box.getMinX();
+            state[1] = box.getMinY();
+            state[2] = velocity.getX();
+            state[3] = velocity.getY();
+            int hit = tileMap.collide(body.getPreviousX(), body.getPreviousY(), box.getWidth(), box.getHeight(), state);
+            if (hit != 0) {
+                if ((hit & TileMap.LANDED) != 0) {
+                    state[2] = BodyStore.applyFriction(state[2], deceleration * elapsed);
+                }
+                body.constrain(state[0], state[1], state[2], state[3]);
+            }
+        }
+    }
+
+    /**
+     * Returns the grid used to detect collisions between the entities of
+     * this world, or null if collisions aren't detected.
+     * @return the collision grid for this world.
+     */
+    public SpatialGrid<Entity> getCollisionGrid() {
+        return collisionGrid;
+    }
+
+    /**
+     * Sets the grid used to detect collisions between the entities of this
+     * world. Passing null turns collision detection off.
+     * @param collisionGrid the new collision grid, or null
+     */
+    public void setCollisionGrid(SpatialGrid<Entity> collisionGrid) {
+        this.collisionGrid = collisionGrid;
+        collisionCount = 0;
+    }
+
+    /**
+     * Returns the number of overlapping pairs of entities found in the last tick.
+     * @return the number of collisions.
+     */
+    public int getCollisionCount() {
+        return collisionCount;
+    }
+
+    /**
+     * Calls <code>action</code> for every overlapping pair of entities
+     * found in the last tick.
+     * @param action the action to run for each pair
+     */
+    public void forEachCollision(BiConsumer<? super Entity, ? super Entity> action) {
+        for (int i = 0; i < collisionCount; i++) {
+            action.accept(collisionsA[i], collisionsB[i]);
+        }
+    }
+
+    /**
+     * Adds every entity whose bounds overlap the specified box to <code>out</code>.
+     * With a collision grid, this uses the bounds from the last tick.
+     * @param box the box to query, in metres
+     * @param out the list to add the entities to
+     */
+    public void query(AABB box, List<? super Entity> out) {
+        if (collisionGrid != null) {
+            collisionGrid.query(box, out);
+            return;
+        }
+        for (Entity entity : entities) {
+            if (entity.getBounds(bounds).overlaps(box)) {
+                out.add(entity);
+            }
+        }
+    }
+
+    /**
+     * Adds every entity whose bounds contain the specified point to <code>out</code>.
+     * With a collision grid, this uses the bounds from the last tick.
+     * @param x the x coordinate of the point, in metres
+     * @param y the y coordinate of the point, in metres
+     * @param out the list to add the entities to
+     */
+    public void queryPoint(double x, double y, List<? super Entity> out) {
+        if (collisionGrid != null) {
+            collisionGrid.queryPoint(x, y, out);
+            return;
+        }
+        for (Entity entity : entities) {
+            if (entity.getBounds(bounds).contains(x, y)) {
+                out.add(entity);
+            }
+        }
+    }
+
+    /**
+     * Adds every entity whose bounds intersect the specified circle to <code>out</code>.
+     * With a collision grid, this uses the bounds from the last tick.
+     * @param x the x coordinate of the center, in metres
+     * @param y the y coordinate of the center, in metres
+     * @param radius the radius of the circle, in metres
+     * @param out the list to add the entities to
+     */
+    public void queryRadius(double x, double y, double radius, List<? super Entity> out) {
+        if (collisionGrid != null) {
+            collisionGrid.queryRadius(x, y, radius, out);
+            return;
+        }
+        for (Entity entity : entities) {
+            if (entity.getBounds(bounds).intersectsCircle(x, y, radius)) {
+                out.add(entity);
+            }
+        }
+    }
+
+    /**
+     * Copies the simulated position of every entity into the translation
+     * of its node, in a single pass. Entities that didn't move are skipped.
+     * This should be called once per rendered frame, after stepping, on the
+     * JavaFX application thread.
+     * @param alpha how far to interpolate between the previous and current
+     *              step, from <code>0</code> to <code>1</code>.
+     */
+    public void sync(double alpha) {
+        sync(alpha, 0, 0, null);
+    }
+
+    /**
+     * Copies the interpolated position of every entity into its node,
+     * relative to a viewport, and hides the entities outside of its view.
+     * @param alpha how far to interpolate between the previous and current step
+     * @param originX the x coordinate of the world drawn at the left of the view, in metres
+     * @param originY the y coordinate of the world drawn at the bottom of the view, in metres
+     * @param visibleRegion the region of the world that is shown, or null to show every entity
+     */
+    public void sync(double alpha, double originX, double originY, AABB visibleRegion) {
+        Entity[] snapshot = snapshot();
+        for (int i = 0, n = snapshotSize; i < n; i++) {
+            Entity entity = snapshot[i];
+            if (visibleRegion != null || entity.culled) {
+                boolean visible = visibleRegion == null || entity.getBounds(cullBounds).overlaps(visibleRegion);
+                if (visible == entity.culled) {
+                    entity.culled = !visible;
+                    entity.setVisible(visible);
+                }
+                if (!visible) {
+                    continue;
+                }
+            }
+            entity.syncTransform(alpha, originX, originY);
+        }
+    }
+
+    /**
+     * Returns the array copy of the entities in this world, rebuilding
+     * it first if entities were added or removed since the last call.
+     * Only the first {@link #snapshotSize} elements are valid.
+     */
+    private Entity[] snapshot() {
+        if (snapshotDirty) {
+            snapshotDirty = false;
+            int n = 0;
+            for (Entity entity : entities) {
+                if (n == snapshot.length) {
+                    snapshot = Arrays.copyOf(snapshot, n * 2);
+                }
+                snapshot[n++] = entity;
+            }
+            if (n < snapshotSize) {
+                Arrays.fill(snapshot, n, snapshotSize, null);
+            }
+            snapshotSize = n;
+        }
+        return snapshot;
+    }
+
+    /**
+     * Returns the dispatcher that delivers input events to the
+     * entities of this world.
+     * @return the {@link InputDispatcher} for this world.
+     */
+    public InputDispatcher getInputDispatcher() {
+        return inputDispatcher;
+    }
+
+    /**
+     * Returns the snapshot of the input taken at the start of the current tick.
+     * @return the current {@link InputState}
+     */
+    public InputState getInput() {
+        return inputDispatcher.getState();
+    }
+
+    /**
+     * Returns the store that holds the physics state of the entities
+     * in this world, or null if they each keep their own.
+     * @return the {@link BodyStore} for this world.
+     */
+    public BodyStore getBodyStore() {
+        return bodyStore;
+    }
+
+    /**
+     * Sets the store that holds the physics state of the entities in
+     * this world. Entities already in the world are moved into the new
+     * store; passing null moves them back into their own objects.
+     * @param bodyStore the new {@link BodyStore}, or null
+     */
+    public void setBodyStore(BodyStore bodyStore) {
+        for (Entity entity : entities) {
+            if (entity.getBody() != null) {
+                entity.unbind();
+            }
+            if (bodyStore != null) {
+                entity.bind(bodyStore);
+            }
+        }
+        this.bodyStore = bodyStore;
+        applySleep();
+    }
+
+    /**
+     * Returns the method used to advance the entities of this world.
+     * Worlds without a {@link BodyStore} always use
+     * {@link Integrator#SEMI_IMPLICIT_EULER}.
+     * @return the {@link Integrator} for this world.
+     */
+    public Integrator getIntegrator() {
+        return bodyStore != null ? bodyStore.getIntegrator() : Integrator.SEMI_IMPLICIT_EULER;
+    }
+
+    /**
+     * Sets the method used to advance the entities of this world. Other
+     * integrators run in batch over a {@link BodyStore}, so one is created
+     * if this world doesn't have one yet.
+     * @param integrator the new {@link Integrator}
+     */
+    public void setIntegrator(Integrator integrator) {
+        if (integrator == null) {
+            throw new NullPointerException("integrator cannot be null");
+        }
+        if (bodyStore == null) {
+            if (integrator == Integrator.SEMI_IMPLICIT_EULER) {
+                return;
+            }
+            setBodyStore(new BodyStore());
+        }
+        bodyStore.setIntegrator(integrator);
+    }
+
+    /**
+     * This method is called by {@link Entity}, and should not be used anywhere else.
+     * Use the {@link Entity#addToWorld} method instead.
+     *
+     * @param entity The entity to add
+     */
+    public void addEntity(Entity entity) {
+        if (bodyStore != null) {
+            entity.bind(bodyStore);
+        }
+        entities.add(entity);
+        entityCount.incrementAndGet();
+        snapshotDirty = true;
+        inputDispatcher.register(entity);
+    }
+
+    /**
+     * This method is called by {@link Entity}, and should not be used anywhere else.
+     * Use the {@link Entity#removeFromParentView()} method instead.
+     *
+     * @param entity The entity to remove
+     */
+    public void removeEntity(Entity entity) {
+        if (entities.remove(entity)) {
+            entityCount.decrementAndGet();
+            snapshotDirty = true;
+            inputDispatcher.unregister(entity);
+            if (entity.getBody() != null) {
+                entity.unbind();
+            }
+        }
+    }
+
+    /**
+     * Returns a read-only view of the entities in this world.
+     * @return the entities in this world.
+     */
+    public Collection<Entity> getEntities() {
+        return Collections.unmodifiableCollection(entities);
+    }
+
+    /**
+     * Returns the number of entities in this world.
+     * @return the number of entities.
+     */
+    public int getEntityCount() {
+        return entityCount.get();
+    }
+
+    /**
+     * Returns the number of times this world has been stepped.
+     * @return the number of ticks so far.
+     */
+    public long getTicks() {
+        return ticks;
+    }
+
+    private static class UpdateTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Entity[] entities;
+        private final boolean scheduled;
+        private final double dt;
+        private final int from, to, threshold;
+
+        UpdateTask(Entity[] entities, boolean scheduled, double dt, int from, int to, int threshold) {
+            this.entities = entities;
+            this.scheduled = scheduled;
+            this.dt = dt;
+            this.from = from;
+            this.to = to;
+            this.threshold = threshold;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= threshold) {
+                for (int i = from; i < to; i++) {
+                    step(entities[i], scheduled ? entities[i].stepDt : dt);
+                }
+            } else {
+                int mid = (from + to) >>> 1;
+                invokeAll(new UpdateTask(entities, scheduled, dt, from, mid, threshold),
+                        new UpdateTask(entities, scheduled, dt, mid, to, threshold));
+            }
+        }
+
+    }
+
+    private static class IntegrateTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final BodyStore store;
+        private final double dt;
+        private final int from, to, threshold;
+
+        IntegrateTask(BodyStore store, double dt, int from, int to, int threshold) {
+            this.store = store;
+            this.dt = dt;
+            this.from = from;
+            this.to = to;
+            this.threshold = threshold;
+        }
+
+        @Override
+        protected void compute() {
+            // integration is cheap per body, so use much bigger chunks than for updates
+            if (to - from <= threshold * 16) {
+                store.integrate(dt, from, to);
+            } else {
+                int mid = (from + to) >>> 1;
+                invokeAll(new IntegrateTask(store, dt, from, mid, threshold),
+                        new IntegrateTask(store, dt, mid, to, threshold));
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,160 @@
+/**
+ * GameFX
+ * <p>
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2016 Tarun Boddupalli
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package me.tarunb.gamefx.graphics;
+
+import me.tarunb.gamefx.Callback;
+
+/**
+ * A handle to a sprite animated by an {@link Animator}. The playback state
+ * lives in the animator; this handle stays valid until {@link #stop()}.
+ */
+public class Animation {
+
+    private final Animator animator;
+    private final Sprite sprite;
+    // the slot of this animation in its animator, or -1 once stopped
+    int index;
+
+    private Callback<Animation> onFinished;
+
+    Animation(Animator animator, Sprite sprite, int index) {
+        this.animator = animator;
+        this.sprite = sprite;
+        this.index = index;
+    }
+
+    public Sprite getSprite() {
+        return sprite;
+    }
+
+    public Animator getAnimator() {
+        return animator;
+    }
+
+    public AnimationClip getClip() {
+        return animator.getClip(slot());
+    }
+
+    /**
+     * Plays another clip from its first frame.
+     * @param clip the clip to play
+     */
+    public void setClip(AnimationClip clip) {
+        animator.setClip(slot(), clip);
+    }
+
+    /**
+     * Returns how far into its clip this animation is.
+     * @return the time, in seconds
+     */
+    public double getTime() {
+        return animator.getTime(slot());
+    }
+
+    /**
+     * Jumps to a point in the clip, and shows the frame there.
+     * @param time the time since the clip started, in seconds
+     */
+    public void setTime(double time) {
+        animator.setTime(slot(), time);
+    }
+
+    /**
+     * Returns the index of the frame that is shown.
+     * @return the current frame
+     */
+    public int getFrame() {
+        return animator.getFrame(slot());
+    }
+
+    public double getSpeed() {
+        return animator.getSpeed(slot());
+    }
+
+    /**
+     * Sets how fast the clip plays, relative to its frame rate.
+     * @param speed the speed, <code>1</code> by default
+     */
+    public void setSpeed(double speed) {
+        animator.setSpeed(slot(), speed);
+    }
+
+    public boolean isPaused() {
+        return animator.isPaused(slot());
+    }
+
+    public void pause() {
+        animator.setPaused(slot(), true);
+    }
+
+    public void resume() {
+        animator.setPaused(slot(), false);
+    }
+
+    /**
+     * Returns whether a clip that plays once has reached its end.
+     * @return true if this animation has finished
+     */
+    public boolean isFinished() {
+        return animator.isFinished(slot());
+    }
+
+    /**
+     * Sets the callback run when a clip that plays once reaches its end.
+     * @param onFinished the callback, or null
+     */
+    public void setOnFinished(Callback<Animation> onFinished) {
+        this.onFinished = onFinished;
+    }
+
+    /**
+     * Stops animating the sprite, leaving it on its current frame.
+     */
+    public void stop() {
+        if (index >= 0) {
+            animator.stop(this);
+        }
+    }
+
+    public boolean isStopped() {
+        return index < 0;
+    }
+
+    void finished() {
+        if (onFinished != null) {
+            onFinished.run(this);
+        }
+    }
+
+    private int slot() {
+        if (index < 0) {
+            throw new IllegalStateException("This animation has been stopped");
+        }
+        return index;
+    }
+
+}
@@ -0,0 +1,202 @@
+/**
+ * GameFX
+ * <p>
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2016 Tarun Boddupalli
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package me.tarunb.gamefx.graphics;
+
+import javafx.geometry.Rectangle2D;
+import javafx.scene.image.Image;
+
+/**
+ * A sequence of frames on one shared image, played at a fixed rate. Each
+ * frame is a region of the image, so playing a clip only ever changes the
+ * viewport of a sprite, and never decodes or swaps images. Clips hold no
+ * playback state, and can be shared by any number of sprites.
+ * @see Animator
+ */
+public class AnimationClip {
+
+    /**
+     * What a clip does once it reaches its last frame.
+     */
+    public enum LoopMode {
+        /**
+         * Stops on the last frame.
+         */
+        ONCE,
+        /**
+         * Starts again from the first frame.
+         */
+        LOOP,
+        /**
+         * Plays backwards to the first frame, then forwards again.
+         */
+        PING_PONG
+    }
+
+    private final Image image;
+    private final Rectangle2D[] frames;
+    private final double fps;
+    private final LoopMode loopMode;
+
+    /**
+     * Constructs a clip from regions of an image.
+     * @param image the image that holds every frame
+     * @param frames the region of each frame, in order
+     * @param fps the number of frames shown per second
+     * @param loopMode what the clip does after its last frame
+     */
+    public AnimationClip(Image image, Rectangle2D[] frames, double fps, LoopMode loopMode) {
+        if (frames.length == 0) {
+            throw new IllegalArgumentException("A clip needs at least one frame");
+        }
+        if (!(fps > 0)) {
+            throw new IllegalArgumentException("fps must be positive");
+        }
+        this.image = image;
+        this.frames = frames.clone();
+        this.fps = fps;
+        this.loopMode = loopMode;
+    }
+
+    /**
+     * Constructs a clip from named regions of a texture atlas.
+     * @param atlas the atlas that holds every frame
+     * @param fps the number of frames shown per second
+     * @param loopMode what the clip does after its last frame
+     * @param regions the name of each frame's region, in order
+     */
+    public AnimationClip(TextureAtlas atlas, double fps, LoopMode loopMode, String... regions) {
+        this(atlas.getImage(), regionsOf(atlas, regions), fps, loopMode);
+    }
+
+    /**
+     * Constructs a clip from a sprite sheet laid out as a grid of equally
+     * sized frames, numbered left to right, then top to bottom.
+     * @param image the sprite sheet
+     * @param frameWidth the width of a frame, in pixels
+     * @param frameHeight the height of a frame, in pixels
+     * @param first the number of the first frame of the clip
+     * @param count the number of frames in the clip
+     * @param fps the number of frames shown per second
+     * @param loopMode what the clip does after its last frame
+     * @return the clip
+     */
+    public static AnimationClip fromGrid(Image image, int frameWidth, int frameHeight, int first, int count,
+                                         double fps, LoopMode loopMode) {
+        int columns = (int) image.getWidth() / frameWidth;
+        if (columns == 0 || first < 0 || first + count > columns * ((int) image.getHeight() / frameHeight)) {
+            throw new IllegalArgumentException("Frames " + first + " to " + (first + count - 1) + " aren't in the sheet");
+        }
+        Rectangle2D[] frames = new Rectangle2D[count];
+        for (int i = 0; i < count; i++) {
+            int n = first + i;
+            frames[i] = new Rectangle2D(n % columns * frameWidth, n / columns * frameHeight, frameWidth, frameHeight);
+        }
+        return new AnimationClip(image, frames, fps, loopMode);
+    }
+
+    /**
+     * Constructs a clip from a sprite sheet file, loaded through the {@link ImageCache}.
+     * @see #fromGrid(Image, int, int, int, int, double, LoopMode)
+     */
+    public static AnimationClip fromGrid(String fileName, int frameWidth, int frameHeight, int first, int count,
+                                         double fps, LoopMode loopMode) {
+        return fromGrid(ImageCache.get(fileName), frameWidth, frameHeight, first, count, fps, loopMode);
+    }
+
+    private static Rectangle2D[] regionsOf(TextureAtlas atlas, String[] names) {
+        Rectangle2D[] frames = new Rectangle2D[names.length];
+        for (int i = 0; i < names.length; i++) {
+            frames[i] = atlas.getRegion(names[i]);
+            if (frames[i] == null) {
+                throw new IllegalArgumentException("Region " + names[i] + " isn't in the atlas");
+            }
+        }
+        return frames;
+    }
+
+    public Image getImage() {
+        return image;
+    }
+
+    public int getFrameCount() {
+        return frames.length;
+    }
+
+    public Rectangle2D getFrame(int index) {
+        return frames[index];
+    }
+
+    public double getFps() {
+        return fps;
+    }
+
+    public LoopMode getLoopMode() {
+        return loopMode;
+    }
+
+    /**
+     * Returns the time it takes to play every frame once.
+     * @return the duration of this clip, in seconds
+     */
+    public double getDuration() {
+        return frames.length / fps;
+    }
+
+    /**
+     * Returns the frame shown at a point in the clip.
+     * @param time the time since the clip started, in seconds
+     * @return the index of the frame
+     */
+    public int frameAt(double time) {
+        int count = frames.length;
+        long n = time > 0 ? (long) (time * fps) : 0;
+        switch (loopMode) {
+            case LOOP:
+                return (int) (n % count);
+            case PING_PONG:
+                if (count == 1) {
+                    return 0;
+                }
+                int period = 2 * count - 2;
+                int i = (int) (n % period);
+                return i < count ? i : period - i;
+            default:
+                return n < count ? (int) n : count - 1;
+        }
+    }
+
+    /**
+     * Returns whether a clip that plays once has shown its last frame for
+     * a whole frame. Looping clips never finish.
+     * @param time the time since the clip started, in seconds
+     * @return true if the clip has finished
+     */
+    public boolean isFinished(double time) {
+        return loopMode == LoopMode.ONCE && time * fps >= frames.length;
+    }
+
+}
@@ -0,0 +1,260 @@
+/**
+ * GameFX
+ * <p>
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2016 Tarun Boddupalli
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package me.tarunb.gamefx.graphics;
+
+import javafx.scene.image.ImageView;
+import me.tarunb.gamefx.entity.TickListener;
+import me.tarunb.gamefx.entity.World;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Plays {@link AnimationClip}s on many sprites in one batched pass per tick.
+ * The playback state of every sprite is kept in parallel arrays, and a
+ * sprite's viewport is only touched when its frame actually changes, so
+ * thousands of animated sprites cost a tight loop rather than one
+ * <code>Timeline</code> each.
+ * <p>
+ * Every {@link me.tarunb.gamefx.view.View} has an animator that is stepped
+ * with its world. Since it changes nodes, an animator must be stepped on
+ * the FX thread.
+ */
+public class Animator implements Updatable, TickListener {
+
+    private static final byte PLAYING = 0, PAUSED = 1, FINISHED = 2;
+
+    private ImageView[] views = new ImageView[64];
+    private AnimationClip[] clips = new AnimationClip[64];
+    private double[] time = new double[64];
+    private double[] speed = new double[64];
+    private int[] frame = new int[64];
+    private byte[] state = new byte[64];
+    private Animation[] animations = new Animation[64];
+    private int size = 0;
+
+    private final Map<Sprite, Animation> bySprite = new IdentityHashMap<>();
+
+    // animations that finished this tick, whose callbacks run after the pass
+    private Animation[] finished = new Animation[16];
+
+    // total time this animator has been stepped, the timeline shared by synced animations
+    private double clock = 0;
+
+    /**
+     * Plays a clip on a sprite from its first frame. If the sprite is
+     * already animated by this animator, its clip is replaced.
+     * @param sprite the sprite to animate
+     * @param clip the clip to play
+     * @return the handle to the animation
+     */
+    public Animation play(Sprite sprite, AnimationClip clip) {
+        return play(sprite, clip, false);
+    }
+
+    /**
+     * Plays a clip on a sprite. Synced animations start where the shared
+     * timeline of this animator is, rather than at the first frame, so every
+     * synced sprite playing the same clip at normal speed shows the same frame,
+     * like tiles of water or a crowd idling in step.
+     * @param sprite the sprite to animate
+     * @param clip the clip to play
+     * @param synced true to follow the shared timeline
+     * @return the handle to the animation
+     */
+    public Animation play(Sprite sprite, AnimationClip clip, boolean synced) {
+        Animation animation = bySprite.get(sprite);
+        if (animation == null) {
+            if (size == views.length) {
+                grow(size * 2);
+            }
+            int i = size++;
+            animation = new Animation(this, sprite, i);
+            views[i] = sprite.getImageView();
+            animations[i] = animation;
+            speed[i] = 1;
+            bySprite.put(sprite, animation);
+        }
+        start(animation.index, clip, synced ? clock : 0);
+        return animation;
+    }
+
+    /**
+     * Returns the animation playing on a sprite.
+     * @param sprite the sprite
+     * @return the animation, or null if this animator doesn't animate the sprite
+     */
+    public Animation get(Sprite sprite) {
+        return bySprite.get(sprite);
+    }
+
+    /**
+     * Returns the number of sprites this animator animates.
+     * @return the number of animations
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Advances every animation that isn't paused, and shows its new frame
+     * if it changed.
+     * @param dt The amount of elapsed time, in seconds.
+     */
+    @Override
+    public void update(double dt) {
+        clock += dt;
+        final ImageView[] views = this.views;
+        final AnimationClip[] clips = this.clips;
+        final double[] time = this.time, speed = this.speed;
+        final int[] frame = this.frame;
+        final byte[] state = this.state;
+        int finishedCount = 0;
+
+        for (int i = 0; i < size; i++) {
+            if (state[i] != PLAYING) {
+                continue;
+            }
+            double t = time[i] += dt * speed[i];
+            AnimationClip clip = clips[i];
+            int f = clip.frameAt(t);
+            if (f != frame[i]) {
+                frame[i] = f;
+                views[i].setViewport(clip.getFrame(f));
+            }
+            if (clip.isFinished(t)) {
+                state[i] = FINISHED;
+                if (finishedCount == finished.length) {
+                    finished = Arrays.copyOf(finished, finishedCount * 2);
+                }
+                finished[finishedCount++] = animations[i];
+            }
+        }
+
+        // callbacks may start or stop animations, so they only run once the pass is done
+        for (int i = 0; i < finishedCount; i++) {
+            Animation animation = finished[i];
+            finished[i] = null;
+            animation.finished();
+        }
+    }
+
+    @Override
+    public void afterTick(World world, double dt) {
+        update(dt);
+    }
+
+    private void start(int i, AnimationClip clip, double startTime) {
+        ImageView view = views[i];
+        if (view.getImage() != clip.getImage()) {
+            view.setImage(clip.getImage());
+        }
+        clips[i] = clip;
+        time[i] = startTime;
+        frame[i] = clip.frameAt(startTime);
+        state[i] = PLAYING;
+        view.setViewport(clip.getFrame(frame[i]));
+    }
+
+    void stop(Animation animation) {
+        int hole = animation.index;
+        int last = --size;
+        if (hole != last) {
+            views[hole] = views[last];
+            clips[hole] = clips[last];
+            time[hole] = time[last];
+            speed[hole] = speed[last];
+            frame[hole] = frame[last];
+            state[hole] = state[last];
+            animations[hole] = animations[last];
+            animations[hole].index = hole;
+        }
+        views[last] = null;
+        clips[last] = null;
+        animations[last] = null;
+        bySprite.remove(animation.getSprite());
+        animation.index = -1;
+    }
+
+    void setClip(int i, AnimationClip clip) {
+        start(i, clip, 0);
+    }
+
+    AnimationClip getClip(int i) {
+        return clips[i];
+    }
+
+    double getTime(int i) {
+        return time[i];
+    }
+
+    void setTime(int i, double t) {
+        time[i] = t;
+        AnimationClip clip = clips[i];
+        frame[i] = clip.frameAt(t);
+        views[i].setViewport(clip.getFrame(frame[i]));
+        state[i] = clip.isFinished(t) ? FINISHED : state[i] == FINISHED ? PLAYING : state[i];
+    }
+
+    double getSpeed(int i) {
+        return speed[i];
+    }
+
+    void setSpeed(int i, double s) {
+        speed[i] = s;
+    }
+
+    int getFrame(int i) {
+        return frame[i];
+    }
+
+    boolean isPaused(int i) {
+        return state[i] == PAUSED;
+    }
+
+    void setPaused(int i, boolean paused) {
+        if (state[i] != FINISHED) {
+            state[i] = paused ? PAUSED : PLAYING;
+        }
+    }
+
+    boolean isFinished(int i) {
+        return state[i] == FINISHED;
+    }
+
+    private void grow(int capacity) {
+        views = Arrays.copyOf(views, capacity);
+        clips = Arrays.copyOf(clips, capacity);
+        time = Arrays.copyOf(time, capacity);
+        speed = Arrays.copyOf(speed, capacity);
+        frame = Arrays.copyOf(frame, capacity);
+        state = Arrays.copyOf(state, capacity);
+        animations = Arrays.copyOf(animations, capacity);
+    }
+
+}
@@ -0,0 +1,120 @@
+/**
+ * GameFX
+ * <p>
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2016 Tarun Boddupalli
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package me.tarunb.gamefx.graphics;
+
+import javafx.application.Platform;
+import me.tarunb.gamefx.Callback;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Loads {@link AssetManifest}s in the background. Images are decoded and
+ * tasks are run on a small, fixed pool of daemon threads, so loading never
+ * blocks the FX thread, and loading many assets at once doesn't start
+ * more threads than the machine can use.
+ */
+public class AssetLoader {
+
+    /**
+     * The number of loader threads: one less than the number of
+     * processors, so the FX thread keeps a core, but at most 4.
+     */
+    public static final int THREADS = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() - 1));
+
+    private static final AtomicInteger threadCount = new AtomicInteger();
+
+    private static final ExecutorService executor = Executors.newFixedThreadPool(THREADS, r -> {
+        Thread thread = new Thread(r, "asset-loader-" + threadCount.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Loads everything in a manifest in the background.
+     * @param manifest the manifest to load
+     * @return a future that completes on a loader thread once everything is loaded
+     */
+    public static CompletableFuture<AssetManifest> load(AssetManifest manifest) {
+        return load(manifest, null);
+    }
+
+    /**
+     * Loads everything in a manifest in the background, reporting progress
+     * as each image or task finishes.
+     * @param manifest the manifest to load
+     * @param progress called on the FX thread with the fraction loaded so far,
+     *                 from <code>0</code> to <code>1</code>, or null
+     * @return a future that completes on a loader thread once everything is
+     * loaded, or completes exceptionally if an image or task fails
+     */
+    public static CompletableFuture<AssetManifest> load(AssetManifest manifest, Callback<Double> progress) {
+        List<CompletableFuture<Void>> parts = new ArrayList<>();
+        // taken before the assets are listed, so anything added after is noticed
+        int generation = manifest.getGeneration();
+        int total = manifest.size();
+        AtomicInteger done = new AtomicInteger();
+        Runnable report = progress == null ? null : () -> {
+            double fraction = total == 0 ? 1 : (double) done.incrementAndGet() / total;
+            Platform.runLater(() -> progress.run(fraction));
+        };
+
+        for (String fileName : manifest.getImages()) {
+            parts.add(CompletableFuture.runAsync(() -> manifest.loadImage(fileName), executor));
+        }
+        for (Runnable task : manifest.getTasks()) {
+            parts.add(CompletableFuture.runAsync(() -> manifest.runTask(task), executor));
+        }
+        if (report != null) {
+            if (parts.isEmpty()) {
+                Platform.runLater(() -> progress.run(1.0));
+            }
+            for (CompletableFuture<Void> part : parts) {
+                part.thenRun(report);
+            }
+        }
+
+        return CompletableFuture.allOf(parts.toArray(new CompletableFuture<?>[0])).thenApply(v -> {
+            manifest.markLoaded(generation);
+            return manifest;
+        });
+    }
+
+    /**
+     * Returns the executor the loader threads belong to, for other
+     * background work that should share their bound.
+     * @return the loader executor
+     */
+    public static ExecutorService getExecutor() {
+        return executor;
+    }
+
+}
@@ -0,0 +1,208 @@
+/**
+ * GameFX
+ * <p>
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2016 Tarun Boddupalli
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package me.tarunb.gamefx.graphics;
+
+import javafx.scene.image.Image;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A list of the assets something needs before it can be shown: images to
+ * decode, and other preparation work to run off the FX thread. Every
+ * {@link me.tarunb.gamefx.view.View} has one, and the
+ * {@link me.tarunb.gamefx.view.ViewManager} loads it with the
+ * {@link AssetLoader} before the view is first shown.
+ * <p>
+ * Images use the same file names as {@link Sprite#Sprite(String)}. Once
+ * loaded, they are held by the manifest as well as by the
+ * {@link ImageCache}, so they stay decoded while the manifest is in use,
+ * even if the cache's budget is exceeded.
+ */
+public class AssetManifest {
+
+    private final Set<String> images = new LinkedHashSet<>();
+    private final List<Runnable> tasks = new ArrayList<>();
+
+    private final Map<String, Image> loaded = new ConcurrentHashMap<>();
+    // the run of each task that has been started, so tasks run once and later loads can wait for them
+    private final Map<Runnable, CompletableFuture<Void>> runs = new ConcurrentHashMap<>();
+    private volatile boolean complete = false;
+    // bumped whenever assets are added or released, so a load that missed them doesn't mark this manifest loaded
+    private int generation = 0;
+
+    /**
+     * Adds images to this manifest.
+     * @param fileNames the file names of the images
+     * @return this manifest
+     */
+    public synchronized AssetManifest addImages(String... fileNames) {
+        for (String fileName : fileNames) {
+            if (images.add(fileName)) {
+                complete = false;
+                generation++;
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Adds work to run on a loader thread, such as parsing a level file.
+     * Tasks must not touch nodes that are already shown.
+     * @param task the work to run
+     * @return this manifest
+     */
+    public synchronized AssetManifest addTask(Runnable task) {
+        tasks.add(task);
+        complete = false;
+        generation++;
+        return this;
+    }
+
+    public synchronized Set<String> getImages() {
+        return Collections.unmodifiableSet(new LinkedHashSet<>(images));
+    }
+
+    public synchronized List<Runnable> getTasks() {
+        return Collections.unmodifiableList(new ArrayList<>(tasks));
+    }
+
+    /**
+     * Returns the number of images and tasks in this manifest.
+     * @return the size of this manifest
+     */
+    public synchronized int size() {
+        return images.size() + tasks.size();
+    }
+
+    /**
+     * Returns a loaded image from this manifest, decoding it
+     * if it hasn't been loaded yet.
+     * @param fileName the file name of the image
+     * @return the decoded image
+     */
+    public Image getImage(String fileName) {
+        Image image = loaded.get(fileName);
+        return image != null ? image : ImageCache.get(fileName);
+    }
+
+    /**
+     * Returns whether everything in this manifest has been loaded.
+     * @return true if the manifest is loaded
+     */
+    public boolean isLoaded() {
+        return complete;
+    }
+
+    /**
+     * Loads everything in this manifest on the calling thread. Tasks that
+     * a loader thread is still running are waited for.
+     */
+    public void loadNow() {
+        if (complete) {
+            return;
+        }
+        int generation = getGeneration();
+        for (String fileName : getImages()) {
+            loadImage(fileName);
+        }
+        for (Runnable task : getTasks()) {
+            runTask(task);
+        }
+        markLoaded(generation);
+    }
+
+    /**
+     * Returns the images that have been loaded so far.
+     * @return the loaded images
+     */
+    public Collection<Image> getLoadedImages() {
+        return Collections.unmodifiableCollection(loaded.values());
+    }
+
+    /**
+     * Releases the images held by this manifest. They stay in the
+     * {@link ImageCache} until its budget pushes them out.
+     */
+    public synchronized void unload() {
+        loaded.clear();
+        complete = false;
+        generation++;
+    }
+
+    void loadImage(String fileName) {
+        if (!loaded.containsKey(fileName)) {
+            loaded.put(fileName, ImageCache.get(fileName));
+        }
+    }
+
+    /**
+     * Runs a task, unless it has run already. If another thread is running
+     * it, waits until it has finished.
+     */
+    void runTask(Runnable task) {
+        // tasks only ever run once, even if the manifest is loaded again
+        CompletableFuture<Void> run = new CompletableFuture<>();
+        CompletableFuture<Void> started = runs.putIfAbsent(task, run);
+        if (started != null) {
+            started.join();
+            return;
+        }
+        try {
+            task.run();
+            run.complete(null);
+        } catch (RuntimeException | Error e) {
+            // a failed task is run again by the next load
+            runs.remove(task);
+            run.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    synchronized int getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Marks this manifest loaded, if nothing was added or released since
+     * the load that just finished started.
+     * @param generation the generation of this manifest when the load started
+     */
+    synchronized void markLoaded(int generation) {
+        if (this.generation == generation) {
+            complete = true;
+        }
+    }
+
+}
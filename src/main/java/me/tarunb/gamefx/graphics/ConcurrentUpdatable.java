@@ -0,0 +1,45 @@
+/**
+ * GameFX
+ * <p>
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2016 Tarun Boddupalli
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package me.tarunb.gamefx.graphics;
+
+/**
+ * An {@link Updatable} whose {@link #update(double)} may be called off the
+ * JavaFX application thread, concurrently with the updates of other objects.
+ * <p>
+ * Implementations promise that <code>update</code> only reads and writes the
+ * object's own simulation state (for an entity: its position, velocity,
+ * acceleration and its own fields), and reads shared state that doesn't change
+ * during the update phase, such as {@link me.tarunb.gamefx.physics.Physics}
+ * constants. It must not touch the scene graph (nodes, sprites, image views),
+ * other objects' state, or add or remove entities. Scene graph changes belong
+ * in the sync phase that runs afterwards on the JavaFX application thread.
+ * <p>
+ * Objects that don't implement this interface are always updated on the
+ * thread that steps the world.
+ */
+public interface ConcurrentUpdatable extends Updatable {
+}
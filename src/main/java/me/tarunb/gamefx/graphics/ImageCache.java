@@ -0,0 +1,195 @@
+/**
+ * GameFX
+ * <p>
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2016 Tarun Boddupalli
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package me.tarunb.gamefx.graphics;
+
+import javafx.scene.image.Image;
+
+import java.io.InputStream;
+import java.lang.ref.WeakReference;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A shared cache of decoded images, keyed by file name. File names use the
+ * same format as {@link Sprite#Sprite(String)}: a name starting with
+ * <code>#/</code> is loaded from the <code>/res/img/</code> resource folder,
+ * anything else is treated as a URL.
+ * <p>
+ * The most recently used images are held strongly, up to a budget of
+ * {@link #getMaxBytes()} decoded bytes. Images evicted from that budget are
+ * only held weakly, so they are still shared while something uses them, but
+ * can be collected once nothing does.
+ */
+public class ImageCache {
+
+    public static final long DEFAULT_MAX_BYTES = 64L * 1024 * 1024;
+
+    private static long maxBytes = DEFAULT_MAX_BYTES;
+    private static long bytes = 0;
+
+    private static final LinkedHashMap<String, Image> images = new LinkedHashMap<>(16, 0.75f, true);
+    private static final Map<String, WeakReference<Image>> evicted = new HashMap<>();
+
+    /**
+     * Returns the image with the specified file name, decoding it only
+     * if it isn't already cached. Images are decoded outside of the cache's
+     * lock, so threads decoding different images don't wait for each other.
+     * @param fileName the file name of the image
+     * @return the decoded image
+     */
+    public static Image get(String fileName) {
+        synchronized (ImageCache.class) {
+            Image image = images.get(fileName);
+            if (image != null) {
+                return image;
+            }
+            WeakReference<Image> ref = evicted.remove(fileName);
+            image = ref != null ? ref.get() : null;
+            if (image != null) {
+                put(fileName, image);
+                return image;
+            }
+        }
+
+        Image image = load(fileName);
+        synchronized (ImageCache.class) {
+            // another thread may have decoded the same image in the meantime
+            Image raced = images.get(fileName);
+            if (raced != null) {
+                return raced;
+            }
+            put(fileName, image);
+            return image;
+        }
+    }
+
+    /**
+     * Returns the cached image with the specified file name, without
+     * decoding it if it isn't cached.
+     * @param fileName the file name of the image
+     * @return the cached image, or null if it isn't cached
+     */
+    public static synchronized Image getIfPresent(String fileName) {
+        Image image = images.get(fileName);
+        if (image == null) {
+            WeakReference<Image> ref = evicted.get(fileName);
+            image = ref != null ? ref.get() : null;
+        }
+        return image;
+    }
+
+    /**
+     * Adds an already decoded image to the cache.
+     * @param fileName the key to store the image under
+     * @param image the image
+     */
+    public static synchronized void put(String fileName, Image image) {
+        Image old = images.put(fileName, image);
+        if (old != null) {
+            bytes -= sizeOf(old);
+        }
+        evicted.remove(fileName);
+        bytes += sizeOf(image);
+        trim();
+    }
+
+    /**
+     * Removes the image with the specified file name from the cache.
+     * @param fileName the file name of the image
+     */
+    public static synchronized void remove(String fileName) {
+        Image image = images.remove(fileName);
+        if (image != null) {
+            bytes -= sizeOf(image);
+        }
+        evicted.remove(fileName);
+    }
+
+    /**
+     * Removes every image from the cache.
+     */
+    public static synchronized void clear() {
+        images.clear();
+        evicted.clear();
+        bytes = 0;
+    }
+
+    public static synchronized long getMaxBytes() {
+        return maxBytes;
+    }
+
+    /**
+     * Sets the budget of decoded bytes that the cache holds strongly.
+     * @param maxBytes the new budget, in bytes
+     */
+    public static synchronized void setMaxBytes(long maxBytes) {
+        ImageCache.maxBytes = maxBytes;
+        trim();
+    }
+
+    /**
+     * Returns the estimated number of decoded bytes held strongly by the cache.
+     * @return the estimated size of the cache, in bytes
+     */
+    public static synchronized long getBytes() {
+        return bytes;
+    }
+
+    /**
+     * Returns the estimated number of bytes the decoded pixels of an image take.
+     * @param image the image
+     * @return the estimated size of the image, in bytes
+     */
+    public static long sizeOf(Image image) {
+        return (long) image.getWidth() * (long) image.getHeight() * 4;
+    }
+
+    private static void trim() {
+        Iterator<Map.Entry<String, Image>> it = images.entrySet().iterator();
+        while (bytes > maxBytes && images.size() > 1 && it.hasNext()) {
+            Map.Entry<String, Image> eldest = it.next();
+            it.remove();
+            bytes -= sizeOf(eldest.getValue());
+            evicted.put(eldest.getKey(), new WeakReference<>(eldest.getValue()));
+        }
+        evicted.values().removeIf(ref -> ref.get() == null);
+    }
+
+    private static Image load(String fileName) {
+        if (fileName.startsWith("#/")) {
+            InputStream in = ImageCache.class.getResourceAsStream("/res/img/" + fileName.substring(2));
+            if (in == null) {
+                throw new IllegalArgumentException("Image resource " + fileName + " doesn't exist");
+            }
+            return new Image(in);
+        }
+        return new Image(fileName);
+    }
+
+}
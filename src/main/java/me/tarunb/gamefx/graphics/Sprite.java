@@ -26,6 +26,7 @@
 
 package me.tarunb.gamefx.graphics;
 
+import javafx.geometry.Rectangle2D;
 import me.tarunb.gamefx.physics.Vector;
 import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
@@ -48,22 +49,51 @@ public class Sprite {
         this(image, Vector.IDENTITY);
     }
 
+    /**
+     * Constructs a sprite from an image file. A file name starting with
+     * <code>#/</code> is loaded from the <code>/res/img/</code> resource folder,
+     * anything else is treated as a URL. Images are shared through the
+     * {@link ImageCache}, so each file is only decoded once.
+     * @param fileName the file name of the image
+     */
     public Sprite(String fileName) {
-        if (fileName.startsWith("#/")) {
-            this.imageView = new ImageView(new Image(getClass().getResourceAsStream("/res/img/" + fileName.substring(2))));
-        } else {
-            this.imageView = new ImageView(fileName);
-        }
+        this(ImageCache.get(fileName));
     }
 
     public Sprite(String fileName, Vector scale) {
-        if (fileName.startsWith("#/")) {
-            this.imageView = new ImageView(new Image(getClass().getResourceAsStream("/res/img/" + fileName.substring(2))));
-        } else {
-            this.imageView = new ImageView(fileName);
+        this(ImageCache.get(fileName), scale);
+    }
+
+    /**
+     * Constructs a sprite that shows the first frame of an animation clip.
+     * Play the clip with an {@link Animator}.
+     * @param clip the clip
+     */
+    public Sprite(AnimationClip clip) {
+        this(clip, Vector.IDENTITY);
+    }
+
+    public Sprite(AnimationClip clip, Vector scale) {
+        this(clip.getImage(), scale);
+        imageView.setViewport(clip.getFrame(0));
+    }
+
+    /**
+     * Constructs a sprite that shows a region of a texture atlas.
+     * @param atlas the atlas that holds the image
+     * @param region the name of the region in the atlas
+     */
+    public Sprite(TextureAtlas atlas, String region) {
+        this(atlas, region, Vector.IDENTITY);
+    }
+
+    public Sprite(TextureAtlas atlas, String region, Vector scale) {
+        this(atlas.getImage(), scale);
+        Rectangle2D viewport = atlas.getRegion(region);
+        if (viewport == null) {
+            throw new IllegalArgumentException("Region " + region + " isn't in the atlas");
         }
-        imageView.setScaleX(scale.getX());
-        imageView.setScaleY(scale.getY());
+        imageView.setViewport(viewport);
     }
 
     public Image getImage() {
@@ -75,11 +105,46 @@ public class Sprite {
     }
 
     public void setImage(String fileName) {
-        if (fileName.startsWith("#/")) {
-            setImage(new Image(getClass().getResourceAsStream("/res/img/" + fileName.substring(2))));
-        } else {
-            setImage(new Image(fileName));
-        }
+        setImage(ImageCache.get(fileName));
+    }
+
+    /**
+     * Returns the region of the image that this sprite shows,
+     * or null if it shows the whole image.
+     * @return the viewport of this sprite.
+     */
+    public Rectangle2D getViewport() {
+        return imageView.getViewport();
+    }
+
+    public void setViewport(Rectangle2D viewport) {
+        imageView.setViewport(viewport);
+    }
+
+    /**
+     * Returns the width of this sprite on screen, in pixels.
+     * @return the scaled width of the image or viewport.
+     */
+    public double getWidth() {
+        Rectangle2D viewport = imageView.getViewport();
+        Image image = imageView.getImage();
+        double width = viewport != null ? viewport.getWidth() : image != null ? image.getWidth() : 0;
+        return width * Math.abs(imageView.getScaleX());
+    }
+
+    /**
+     * Returns the height of this sprite on screen, in pixels.
+     * @return the scaled height of the image or viewport.
+     */
+    public double getHeight() {
+        Rectangle2D viewport = imageView.getViewport();
+        Image image = imageView.getImage();
+        double height = viewport != null ? viewport.getHeight() : image != null ? image.getHeight() : 0;
+        return height * Math.abs(imageView.getScaleY());
+    }
+
+    public Vector getScale() {
+        return scale;
     }
 
     public ImageView getImageView() {
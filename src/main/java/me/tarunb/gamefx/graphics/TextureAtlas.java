@@ -0,0 +1,136 @@
+/**
+ * GameFX
+ * <p>
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2016 Tarun Boddupalli
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package me.tarunb.gamefx.graphics;
+
+import javafx.geometry.Rectangle2D;
+import javafx.scene.image.Image;
+import javafx.scene.image.PixelWriter;
+import javafx.scene.image.WritableImage;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Many small images packed into a single sheet. Sprites made from an
+ * atlas share one image and only differ in the region (viewport) of it
+ * they show, which saves decoding, heap and texture uploads.
+ */
+public class TextureAtlas {
+
+    // transparent gap between regions, so filtering doesn't bleed neighbours in
+    private static final int PADDING = 1;
+
+    private final Image image;
+    private final Map<String, Rectangle2D> regions;
+
+    private TextureAtlas(Image image, Map<String, Rectangle2D> regions) {
+        this.image = image;
+        this.regions = Collections.unmodifiableMap(regions);
+    }
+
+    /**
+     * Packs the specified images into a new atlas, using rows (shelves)
+     * of images sorted by height. The atlas is as tall as it needs to be.
+     * @param images the images to pack, by name
+     * @param width the width of the atlas, in pixels
+     * @return the packed atlas
+     */
+    public static TextureAtlas pack(Map<String, Image> images, int width) {
+        List<Map.Entry<String, Image>> entries = new ArrayList<>(images.entrySet());
+        entries.sort((a, b) -> Double.compare(b.getValue().getHeight(), a.getValue().getHeight()));
+
+        Map<String, Rectangle2D> regions = new HashMap<>();
+        int x = 0, y = 0, shelfHeight = 0;
+        for (Map.Entry<String, Image> entry : entries) {
+            int w = (int) entry.getValue().getWidth();
+            int h = (int) entry.getValue().getHeight();
+            if (w > width) {
+                throw new IllegalArgumentException("Image " + entry.getKey() + " is wider than the atlas");
+            }
+            if (x + w > width) {
+                x = 0;
+                y += shelfHeight + PADDING;
+                shelfHeight = 0;
+            }
+            regions.put(entry.getKey(), new Rectangle2D(x, y, w, h));
+            x += w + PADDING;
+            shelfHeight = Math.max(shelfHeight, h);
+        }
+
+        WritableImage sheet = new WritableImage(width, Math.max(1, y + shelfHeight));
+        PixelWriter writer = sheet.getPixelWriter();
+        for (Map.Entry<String, Image> entry : entries) {
+            Rectangle2D region = regions.get(entry.getKey());
+            writer.setPixels((int) region.getMinX(), (int) region.getMinY(),
+                    (int) region.getWidth(), (int) region.getHeight(),
+                    entry.getValue().getPixelReader(), 0, 0);
+        }
+
+        return new TextureAtlas(sheet, regions);
+    }
+
+    /**
+     * Packs the images with the specified file names into a new atlas.
+     * The images are loaded through the {@link ImageCache}, and the regions
+     * are named by file name.
+     * @param width the width of the atlas, in pixels
+     * @param fileNames the file names of the images
+     * @return the packed atlas
+     */
+    public static TextureAtlas pack(int width, String... fileNames) {
+        Map<String, Image> images = new HashMap<>();
+        for (String fileName : fileNames) {
+            images.put(fileName, ImageCache.get(fileName));
+        }
+        return pack(images, width);
+    }
+
+    /**
+     * Returns the packed sheet that every region of this atlas is part of.
+     * @return the image of this atlas.
+     */
+    public Image getImage() {
+        return image;
+    }
+
+    /**
+     * Returns the region of the sheet that holds the image with the specified name.
+     * @param name the name of the image
+     * @return the region of the image, or null if it isn't in this atlas
+     */
+    public Rectangle2D getRegion(String name) {
+        return regions.get(name);
+    }
+
+    public Map<String, Rectangle2D> getRegions() {
+        return regions;
+    }
+
+}
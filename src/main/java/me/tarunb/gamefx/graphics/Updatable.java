@@ -28,6 +28,9 @@ package me.tarunb.gamefx.graphics;
 
 /**
  * Represents an object that can be updated every frame.
+ * Unless it implements {@link ConcurrentUpdatable}, an updatable is always
+ * updated on the thread that steps its world, which for a view is the
+ * JavaFX application thread.
  */
 public interface Updatable {
 
@@ -0,0 +1,436 @@
+/**
+ * GameFX
+ * <p>
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2016 Tarun Boddupalli
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package me.tarunb.gamefx.input;
+
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.MouseButton;
+import javafx.scene.input.MouseEvent;
+import me.tarunb.gamefx.entity.Entity;
+import me.tarunb.gamefx.entity.World;
+import me.tarunb.gamefx.physics.AABB;
+import me.tarunb.gamefx.physics.SpatialGrid;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Dispatches input events to a top-level handler and to the handlers of
+ * the entities in a world. Every {@link me.tarunb.gamefx.entity.World} has
+ * one, and a {@link me.tarunb.gamefx.view.View} feeds its JavaFX input
+ * events into it, but it has no dependency on a scene, so it can also be
+ * driven headless.
+ * <p>
+ * Entities are indexed when they join the world or change their handlers,
+ * so an event only visits the entities that subscribed to it, instead of
+ * every entity in the world. An entity can subscribe its key handler to
+ * specific keys only, see {@link Entity#setKeyHandler(KeyHandler, KeyCode, KeyCode...)}.
+ * <p>
+ * Mouse events are only delivered to the entities under the pointer. They
+ * are found through a spatial index over the bounds of the entities that
+ * have a mouse handler, which is rebuilt at most once per tick, and only
+ * when a mouse event arrives.
+ * <p>
+ * Events are not delivered when they happen. They are posted to an
+ * {@link InputQueue}, and delivered on the simulation thread at the start
+ * of the next tick by {@link #processEvents()}, which also takes an
+ * {@link InputState} snapshot that entities can poll during the tick.
+ */
+public class InputDispatcher {
+
+    private static final double PICK_CELL_SIZE = 2;
+
+    private final World world;
+
+    private KeyHandler keyHandler;
+    private MouseHandler mouseHandler;
+
+    // copy-on-write, so handlers can add and remove entities while an event is dispatched
+    private final List<Entity> mouseSubscribers = new CopyOnWriteArrayList<>();
+    private final List<Entity> keySubscribers = new CopyOnWriteArrayList<>();
+    private final Map<KeyCode, List<Entity>> keySubscribersByCode = new EnumMap<>(KeyCode.class);
+    // every entity in keySubscribersByCode, once, since typed events carry no key code
+    private final List<Entity> typedSubscribers = new CopyOnWriteArrayList<>();
+
+    private final SpatialGrid<Entity> pickGrid = new SpatialGrid<>(PICK_CELL_SIZE);
+    private final AABB bounds = new AABB();
+    private boolean pickDirty = true;
+    private long pickTick = -1;
+
+    private final List<Entity> picked = new ArrayList<>();
+    private final List<Entity> hovered = new ArrayList<>();
+    private final List<Entity> captured = new ArrayList<>();
+    private double lastX, lastY;
+
+    private final InputQueue queue = new InputQueue();
+    private final long[] keys = new long[InputState.KEY_WORDS];
+    private int buttons = 0;
+    private boolean stateChanged = false;
+    private volatile InputState state = InputState.EMPTY;
+    private InputQueue tap;
+
+    /**
+     * Constructs a dispatcher for the entities of the specified world.
+     * @param world the world whose entities receive the events
+     */
+    public InputDispatcher(World world) {
+        this.world = world;
+    }
+
+    /**
+     * Returns the queue that input events are posted to. Events are
+     * delivered in the next tick of the world.
+     * @return the {@link InputQueue} of this dispatcher
+     */
+    public InputQueue getQueue() {
+        return queue;
+    }
+
+    public InputQueue getTap() {
+        return tap;
+    }
+
+    /**
+     * Sets a queue that every delivered event is also posted to, in the
+     * order it was delivered, for example to record it.
+     * @param tap the queue to copy events to, or null
+     */
+    public void setTap(InputQueue tap) {
+        this.tap = tap;
+    }
+
+    /**
+     * Returns the snapshot of the input taken at the start of the current tick.
+     * @return the current {@link InputState}
+     */
+    public InputState getState() {
+        return state;
+    }
+
+    /**
+     * This method is called by {@link me.tarunb.gamefx.entity.World} at the
+     * start of each tick, and should not be used anywhere else. Delivers the
+     * queued events to the handlers and updates the input snapshot.
+     */
+    public void processEvents() {
+        if (queue.size() == 0) {
+            return;
+        }
+        queue.drain(this);
+        if (stateChanged) {
+            state = new InputState(keys.clone(), buttons, lastX, lastY);
+            stateChanged = false;
+        }
+    }
+
+    public KeyHandler getKeyHandler() {
+        return keyHandler;
+    }
+
+    public void setKeyHandler(KeyHandler keyHandler) {
+        this.keyHandler = keyHandler;
+    }
+
+    public MouseHandler getMouseHandler() {
+        return mouseHandler;
+    }
+
+    public void setMouseHandler(MouseHandler mouseHandler) {
+        this.mouseHandler = mouseHandler;
+    }
+
+    /**
+     * This method is called by {@link Entity} and {@link me.tarunb.gamefx.entity.World},
+     * and should not be used anywhere else. (Re)indexes the handlers of an entity.
+     *
+     * @param entity The entity to index
+     */
+    public void register(Entity entity) {
+        unregister(entity);
+        if (entity.getMouseHandler() != null) {
+            mouseSubscribers.add(entity);
+            pickDirty = true;
+        }
+        if (entity.getKeyHandler() != null) {
+            Set<KeyCode> keyCodes = entity.getKeyCodes();
+            if (keyCodes == null) {
+                keySubscribers.add(entity);
+            } else {
+                for (KeyCode code : keyCodes) {
+                    keySubscribersByCode.computeIfAbsent(code, c -> new CopyOnWriteArrayList<>()).add(entity);
+                }
+                typedSubscribers.add(entity);
+            }
+        }
+    }
+
+    /**
+     * This method is called by {@link Entity} and {@link me.tarunb.gamefx.entity.World},
+     * and should not be used anywhere else. Removes an entity from the index.
+     *
+     * @param entity The entity to remove
+     */
+    public void unregister(Entity entity) {
+        if (mouseSubscribers.remove(entity)) {
+            pickDirty = true;
+            hovered.remove(entity);
+            captured.remove(entity);
+        }
+        keySubscribers.remove(entity);
+        typedSubscribers.remove(entity);
+        if (!keySubscribersByCode.isEmpty()) {
+            keySubscribersByCode.values().removeIf(subscribers -> {
+                subscribers.remove(entity);
+                return subscribers.isEmpty();
+            });
+        }
+    }
+
+    /**
+     * Returns the number of entities subscribed to mouse or key events.
+     * @return the number of subscribed entities, counting an entity once per list it's in.
+     */
+    public int getSubscriberCount() {
+        int count = mouseSubscribers.size() + keySubscribers.size();
+        for (List<Entity> subscribers : keySubscribersByCode.values()) {
+            count += subscribers.size();
+        }
+        return count;
+    }
+
+    /**
+     * Dispatches a mouse press. Entities under the pointer keep receiving
+     * drag events until the button is released.
+     * @param button the button that was pressed
+     * @param x the x coordinate of the pointer, in metres
+     * @param y the y coordinate of the pointer, in metres
+     */
+    public void mousePressed(MouseButton button, double x, double y) {
+        buttons |= 1 << button.ordinal();
+        stateChanged = true;
+        if (mouseHandler != null) {
+            mouseHandler.pressed(button, x, y);
+        }
+        for (Entity entity : pick(x, y)) {
+            // captured first, so a handler that removes its entity also releases the capture
+            if (!captured.contains(entity)) {
+                captured.add(entity);
+            }
+            entity.getMouseHandler().pressed(button, x, y);
+        }
+    }
+
+    /**
+     * Dispatches a mouse release, to the entities under the pointer and
+     * the entities the press was made on.
+     * @param button the button that was released
+     * @param x the x coordinate of the pointer, in metres
+     * @param y the y coordinate of the pointer, in metres
+     */
+    public void mouseReleased(MouseButton button, double x, double y) {
+        buttons &= ~(1 << button.ordinal());
+        stateChanged = true;
+        if (mouseHandler != null) {
+            mouseHandler.released(button, x, y);
+        }
+        List<Entity> picked = pick(x, y);
+        // copied and cleared first, since handlers may remove their entities
+        List<Entity> released = new ArrayList<>(captured);
+        captured.clear();
+        for (Entity entity : picked) {
+            entity.getMouseHandler().released(button, x, y);
+        }
+        for (Entity entity : released) {
+            if (!picked.contains(entity)) {
+                entity.getMouseHandler().released(button, x, y);
+            }
+        }
+    }
+
+    public void mouseClicked(MouseEvent event, double x, double y) {
+        if (mouseHandler != null) {
+            mouseHandler.clicked(event);
+        }
+        stateChanged = true;
+        for (Entity entity : pick(x, y)) {
+            entity.getMouseHandler().clicked(event);
+        }
+    }
+
+    public void mouseMoved(double x, double y) {
+        stateChanged = true;
+        if (mouseHandler != null) {
+            mouseHandler.moved(x, y);
+        }
+        for (Entity entity : updateHover(x, y)) {
+            entity.getMouseHandler().moved(x, y);
+        }
+    }
+
+    /**
+     * Dispatches a drag to the entities the press was made on.
+     * @param button the button that is held
+     * @param x the x coordinate of the pointer, in metres
+     * @param y the y coordinate of the pointer, in metres
+     */
+    public void mouseDragged(MouseButton button, double x, double y) {
+        stateChanged = true;
+        if (mouseHandler != null) {
+            mouseHandler.dragged(button, x, y);
+        }
+        updateHover(x, y);
+        for (Entity entity : new ArrayList<>(captured)) {
+            // skip entities that an earlier handler removed
+            if (captured.contains(entity)) {
+                entity.getMouseHandler().dragged(button, x, y);
+            }
+        }
+    }
+
+    /**
+     * Called when the pointer leaves the view; every hovered entity is exited.
+     */
+    public void mouseExited() {
+        List<Entity> exited = new ArrayList<>(hovered);
+        hovered.clear();
+        for (Entity entity : exited) {
+            entity.getMouseHandler().exited(lastX, lastY);
+        }
+    }
+
+    /**
+     * Returns the entities with a mouse handler whose bounds contain the
+     * specified point. The returned list is reused by the next call.
+     */
+    private List<Entity> pick(double x, double y) {
+        if (pickDirty || pickTick != world.getTicks()) {
+            pickGrid.clear();
+            for (Entity entity : mouseSubscribers) {
+                pickGrid.insert(entity, entity.getBounds(bounds));
+            }
+            pickDirty = false;
+            pickTick = world.getTicks();
+        }
+        lastX = x;
+        lastY = y;
+        picked.clear();
+        pickGrid.queryPoint(x, y, picked);
+        return picked;
+    }
+
+    private List<Entity> updateHover(double x, double y) {
+        List<Entity> picked = pick(x, y);
+        // the hover list is brought up to date before any handler runs, since handlers may remove their entities
+        List<Entity> exited = null;
+        for (int i = hovered.size() - 1; i >= 0; i--) {
+            Entity entity = hovered.get(i);
+            if (!picked.contains(entity)) {
+                hovered.remove(i);
+                if (exited == null) {
+                    exited = new ArrayList<>();
+                }
+                exited.add(entity);
+            }
+        }
+        if (exited != null) {
+            for (Entity entity : exited) {
+                entity.getMouseHandler().exited(x, y);
+            }
+        }
+        for (Entity entity : picked) {
+            if (!hovered.contains(entity) && mouseSubscribers.contains(entity)) {
+                hovered.add(entity);
+                entity.getMouseHandler().entered(x, y);
+            }
+        }
+        return picked;
+    }
+
+    /**
+     * Dispatches a key press.
+     * @param code the key that was pressed
+     * @param modifier the modifier that was held, see {@link me.tarunb.gamefx.Utils#getKeyModifier}
+     */
+    public void keyPressed(KeyCode code, KeyCode modifier) {
+        int ordinal = code.ordinal();
+        keys[ordinal >>> 6] |= 1L << ordinal;
+        stateChanged = true;
+        if (keyHandler != null) {
+            keyHandler.pressed(code, modifier);
+        }
+        for (Entity entity : keySubscribers) {
+            entity.getKeyHandler().pressed(code, modifier);
+        }
+        List<Entity> subscribers = keySubscribersByCode.get(code);
+        if (subscribers != null) {
+            for (Entity entity : subscribers) {
+                entity.getKeyHandler().pressed(code, modifier);
+            }
+        }
+    }
+
+    public void keyReleased(KeyCode code) {
+        int ordinal = code.ordinal();
+        keys[ordinal >>> 6] &= ~(1L << ordinal);
+        stateChanged = true;
+        if (keyHandler != null) {
+            keyHandler.released(code);
+        }
+        for (Entity entity : keySubscribers) {
+            entity.getKeyHandler().released(code);
+        }
+        List<Entity> subscribers = keySubscribersByCode.get(code);
+        if (subscribers != null) {
+            for (Entity entity : subscribers) {
+                entity.getKeyHandler().released(code);
+            }
+        }
+    }
+
+    /**
+     * Dispatches a typed key. JavaFX typed events always carry
+     * {@link KeyCode#UNDEFINED}, so they go to every key subscriber,
+     * including entities that only subscribed to some key codes.
+     * @param code the key that was typed
+     * @param modifier the modifier that was held, see {@link me.tarunb.gamefx.Utils#getKeyModifier}
+     */
+    public void keyTyped(KeyCode code, KeyCode modifier) {
+        if (keyHandler != null) {
+            keyHandler.typed(code, modifier);
+        }
+        for (Entity entity : keySubscribers) {
+            entity.getKeyHandler().typed(code, modifier);
+        }
+        for (Entity entity : typedSubscribers) {
+            entity.getKeyHandler().typed(code, modifier);
+        }
+    }
+
+}
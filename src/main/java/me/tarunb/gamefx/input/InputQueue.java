@@ -0,0 +1,312 @@
+/**
+ * GameFX
+ * <p>
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2016 Tarun Boddupalli
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package me.tarunb.gamefx.input;
+
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.MouseButton;
+import javafx.scene.input.MouseEvent;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A bounded, lock-free queue of input events, written by one thread (usually
+ * the JavaFX application thread) and read by the thread that steps the world.
+ * <p>
+ * Events are kept in a ring of primitive slots, so posting an event doesn't
+ * allocate. When the ring is full, new events are dropped and counted, see
+ * {@link #getDroppedEvents()}. Events posted from the simulation thread
+ * before a tick, for example by a headless runner or a replay, are
+ * delivered in that tick, which makes injected input deterministic.
+ * <p>
+ * Events can be moved to and from a compact binary form with
+ * {@link #transferTo(ByteBuffer)} and {@link #readFrom(ByteBuffer)}, which
+ * is how input is recorded and replayed.
+ * <p>
+ * Only one thread may post events at a time.
+ */
+public class InputQueue {
+
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    static final int KEY_PRESSED = 0;
+    static final int KEY_RELEASED = 1;
+    static final int KEY_TYPED = 2;
+    static final int MOUSE_PRESSED = 3;
+    static final int MOUSE_RELEASED = 4;
+    static final int MOUSE_CLICKED = 5;
+    static final int MOUSE_MOVED = 6;
+    static final int MOUSE_DRAGGED = 7;
+    static final int MOUSE_EXITED = 8;
+
+    private static final KeyCode[] KEY_CODES = KeyCode.values();
+    private static final MouseButton[] BUTTONS = MouseButton.values();
+
+    private final int mask;
+    private final int[] types;
+    private final int[] codes;
+    private final int[] modifiers;
+    private final double[] xs;
+    private final double[] ys;
+    private final MouseEvent[] events;
+
+    // next slot to read, written by the consumer only
+    private final AtomicLong head = new AtomicLong();
+    // next slot to write, written by the producer only
+    private final AtomicLong tail = new AtomicLong();
+    private volatile long dropped = 0;
+
+    public InputQueue() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructs a queue that holds at most <code>capacity</code> events,
+     * rounded up to a power of two.
+     * @param capacity the number of events the queue can hold
+     */
+    public InputQueue(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+        mask = size - 1;
+        types = new int[size];
+        codes = new int[size];
+        modifiers = new int[size];
+        xs = new double[size];
+        ys = new double[size];
+        events = new MouseEvent[size];
+    }
+
+    public void keyPressed(KeyCode code, KeyCode modifier) {
+        offer(KEY_PRESSED, code.ordinal(), modifier == null ? -1 : modifier.ordinal(), 0, 0, null);
+    }
+
+    public void keyReleased(KeyCode code) {
+        offer(KEY_RELEASED, code.ordinal(), -1, 0, 0, null);
+    }
+
+    public void keyTyped(KeyCode code, KeyCode modifier) {
+        offer(KEY_TYPED, code.ordinal(), modifier == null ? -1 : modifier.ordinal(), 0, 0, null);
+    }
+
+    public void mousePressed(MouseButton button, double x, double y) {
+        offer(MOUSE_PRESSED, button.ordinal(), -1, x, y, null);
+    }
+
+    public void mouseReleased(MouseButton button, double x, double y) {
+        offer(MOUSE_RELEASED, button.ordinal(), -1, x, y, null);
+    }
+
+    public void mouseClicked(MouseEvent event, double x, double y) {
+        offer(MOUSE_CLICKED, event.getButton().ordinal(), event.getClickCount(), x, y, event);
+    }
+
+    public void mouseMoved(double x, double y) {
+        offer(MOUSE_MOVED, -1, -1, x, y, null);
+    }
+
+    public void mouseDragged(MouseButton button, double x, double y) {
+        offer(MOUSE_DRAGGED, button.ordinal(), -1, x, y, null);
+    }
+
+    public void mouseExited() {
+        offer(MOUSE_EXITED, -1, -1, 0, 0, null);
+    }
+
+    /**
+     * Returns the number of events waiting to be delivered.
+     * @return the number of queued events
+     */
+    public int size() {
+        return (int) (tail.get() - head.get());
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+
+    /**
+     * Returns the number of events that were dropped because the queue was full.
+     * @return the number of dropped events
+     */
+    public long getDroppedEvents() {
+        return dropped;
+    }
+
+    private void offer(int type, int code, int modifier, double x, double y, MouseEvent event) {
+        long t = tail.get();
+        if (t - head.get() > mask) {
+            dropped++;
+            return;
+        }
+        int i = (int) t & mask;
+        types[i] = type;
+        codes[i] = code;
+        modifiers[i] = modifier;
+        xs[i] = x;
+        ys[i] = y;
+        events[i] = event;
+        tail.lazySet(t + 1);
+    }
+
+    /**
+     * Delivers the events that were queued when this method was called,
+     * in order. Consecutive moves, and consecutive drags with the same
+     * button, are folded into the last one.
+     */
+    void drain(InputDispatcher dispatcher) {
+        InputQueue tap = dispatcher.getTap();
+        long h = head.get();
+        long t = tail.get();
+        for (; h < t; h++) {
+            int i = (int) h & mask;
+            int type = types[i];
+            if ((type == MOUSE_MOVED || type == MOUSE_DRAGGED) && h + 1 < t) {
+                int next = (int) (h + 1) & mask;
+                if (types[next] == type && codes[next] == codes[i]) {
+                    continue;
+                }
+            }
+            double x = xs[i], y = ys[i];
+            if (tap != null) {
+                tap.offer(type, codes[i], modifiers[i], x, y, events[i]);
+            }
+            switch (type) {
+                case KEY_PRESSED:
+                    dispatcher.keyPressed(KEY_CODES[codes[i]], modifier(modifiers[i]));
+                    break;
+                case KEY_RELEASED:
+                    dispatcher.keyReleased(KEY_CODES[codes[i]]);
+                    break;
+                case KEY_TYPED:
+                    dispatcher.keyTyped(KEY_CODES[codes[i]], modifier(modifiers[i]));
+                    break;
+                case MOUSE_PRESSED:
+                    dispatcher.mousePressed(BUTTONS[codes[i]], x, y);
+                    break;
+                case MOUSE_RELEASED:
+                    dispatcher.mouseReleased(BUTTONS[codes[i]], x, y);
+                    break;
+                case MOUSE_CLICKED:
+                    MouseEvent event = events[i];
+                    events[i] = null;
+                    dispatcher.mouseClicked(event, x, y);
+                    break;
+                case MOUSE_MOVED:
+                    dispatcher.mouseMoved(x, y);
+                    break;
+                case MOUSE_DRAGGED:
+                    dispatcher.mouseDragged(BUTTONS[codes[i]], x, y);
+                    break;
+                case MOUSE_EXITED:
+                    dispatcher.mouseExited();
+                    break;
+            }
+            // free the slot as soon as it's read, so a handler that posts events doesn't see a full queue
+            head.lazySet(h + 1);
+        }
+        head.lazySet(t);
+    }
+
+    /**
+     * Moves every queued event into <code>out</code>, as a count followed by
+     * the events. Key events take 5 bytes or less, mouse events 21 bytes or less.
+     * Must be called from the thread that reads the queue.
+     * @param out the buffer to write into
+     * @return the number of events that were written
+     * @throws java.nio.BufferOverflowException if <code>out</code> is too small,
+     * in which case the queue is left unchanged
+     */
+    public int transferTo(ByteBuffer out) {
+        long h = head.get();
+        long t = tail.get();
+        int count = (int) (t - h);
+        out.putShort((short) count);
+        for (; h < t; h++) {
+            int i = (int) h & mask;
+            int type = types[i];
+            out.put((byte) type);
+            if (type != MOUSE_MOVED && type != MOUSE_EXITED) {
+                out.putShort((short) codes[i]);
+            }
+            if (type == KEY_PRESSED || type == KEY_TYPED || type == MOUSE_CLICKED) {
+                out.putShort((short) modifiers[i]);
+            }
+            if (type >= MOUSE_PRESSED && type != MOUSE_EXITED) {
+                out.putDouble(xs[i]).putDouble(ys[i]);
+            }
+        }
+        for (h = head.get(); h < t; h++) {
+            events[(int) h & mask] = null;
+        }
+        head.lazySet(t);
+        return count;
+    }
+
+    /**
+     * Posts the events in <code>in</code>, as written by {@link #transferTo(ByteBuffer)}.
+     * Clicks are posted as synthesized {@link MouseEvent}s whose coordinates
+     * are in metres.
+     * @param in the buffer to read from
+     * @return the number of events that were read
+     */
+    public int readFrom(ByteBuffer in) {
+        int count = in.getShort() & 0xFFFF;
+        for (int n = 0; n < count; n++) {
+            int type = in.get();
+            int code = -1, modifier = -1;
+            double x = 0, y = 0;
+            if (type != MOUSE_MOVED && type != MOUSE_EXITED) {
+                code = in.getShort();
+            }
+            if (type == KEY_PRESSED || type == KEY_TYPED || type == MOUSE_CLICKED) {
+                modifier = in.getShort();
+            }
+            if (type >= MOUSE_PRESSED && type != MOUSE_EXITED) {
+                x = in.getDouble();
+                y = in.getDouble();
+            }
+            MouseEvent event = null;
+            if (type == MOUSE_CLICKED) {
+                event = new MouseEvent(MouseEvent.MOUSE_CLICKED, x, y, x, y, BUTTONS[code], modifier,
+                        false, false, false, false, false, false, false, true, false, true, null);
+            }
+            offer(type, code, modifier, x, y, event);
+        }
+        return count;
+    }
+
+    private static KeyCode modifier(int ordinal) {
+        return ordinal < 0 ? null : KEY_CODES[ordinal];
+    }
+
+}
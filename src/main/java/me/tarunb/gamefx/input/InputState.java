@@ -0,0 +1,90 @@
+/**
+ * GameFX
+ * <p>
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2016 Tarun Boddupalli
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package me.tarunb.gamefx.input;
+
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.MouseButton;
+
+/**
+ * An immutable snapshot of the keys and mouse buttons that are held, and
+ * of the position of the pointer, taken at the start of a tick. Code that
+ * runs in the simulation step can poll it instead of tracking input
+ * events itself:
+ * <pre>
+ * if (getWorld().getInput().isKeyDown(KeyCode.SPACE)) {
+ *     jump();
+ * }
+ * </pre>
+ * A new snapshot is only created in ticks where the input changed.
+ */
+public final class InputState {
+
+    static final int KEY_WORDS = (KeyCode.values().length + 63) >>> 6;
+
+    public static final InputState EMPTY = new InputState(new long[KEY_WORDS], 0, 0, 0);
+
+    private final long[] keys;
+    private final int buttons;
+    private final double mouseX, mouseY;
+
+    InputState(long[] keys, int buttons, double mouseX, double mouseY) {
+        this.keys = keys;
+        this.buttons = buttons;
+        this.mouseX = mouseX;
+        this.mouseY = mouseY;
+    }
+
+    public boolean isKeyDown(KeyCode code) {
+        int ordinal = code.ordinal();
+        return (keys[ordinal >>> 6] & (1L << ordinal)) != 0;
+    }
+
+    public boolean isButtonDown(MouseButton button) {
+        return (buttons & (1 << button.ordinal())) != 0;
+    }
+
+    public boolean isAnyButtonDown() {
+        return buttons != 0;
+    }
+
+    /**
+     * Returns the x coordinate of the pointer, in metres.
+     * @return the last known x coordinate of the pointer
+     */
+    public double getMouseX() {
+        return mouseX;
+    }
+
+    /**
+     * Returns the y coordinate of the pointer, in metres.
+     * @return the last known y coordinate of the pointer
+     */
+    public double getMouseY() {
+        return mouseY;
+    }
+
+}
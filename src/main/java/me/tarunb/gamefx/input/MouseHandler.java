@@ -29,6 +29,15 @@ package me.tarunb.gamefx.input;
 import javafx.scene.input.MouseButton;
 import javafx.scene.input.MouseEvent;
 
+/**
+ * Handles mouse events. A handler set on a view receives every event.
+ * A handler set on an entity only receives events while the pointer is
+ * over the entity's bounds, except for {@link #dragged} and
+ * {@link #released}, which it keeps receiving after a press on the
+ * entity until the button is released.
+ * <p>
+ * Coordinates are in world units (metres), with <code>y</code> pointing up.
+ */
 public interface MouseHandler {
 
     default void pressed(MouseButton button) {}
@@ -37,4 +46,31 @@ public interface MouseHandler {
 
     default void clicked(MouseEvent event) {}
 
+    default void pressed(MouseButton button, double x, double y) {
+        pressed(button);
+    }
+
+    default void released(MouseButton button, double x, double y) {
+        released(button);
+    }
+
+    default void dragged(MouseButton button, double x, double y) {}
+
+    default void moved(double x, double y) {}
+
+    /**
+     * Called when the pointer moves onto the bounds of the entity.
+     * @param x the x coordinate of the pointer, in metres
+     * @param y the y coordinate of the pointer, in metres
+     */
+    default void entered(double x, double y) {}
+
+    /**
+     * Called when the pointer moves off the bounds of the entity,
+     * or leaves the view.
+     * @param x the x coordinate of the pointer, in metres
+     * @param y the y coordinate of the pointer, in metres
+     */
+    default void exited(double x, double y) {}
+
 }
@@ -0,0 +1,151 @@
+/**
+ * GameFX
+ * <p>
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2016 Tarun Boddupalli
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package me.tarunb.gamefx.loop;
+
+import me.tarunb.gamefx.graphics.Updatable;
+
+/**
+ * Steps the simulation at a fixed tick rate, independent of the
+ * frame rate. Elapsed frame time is collected in an accumulator and
+ * spent in whole ticks; whatever is left over is exposed as the
+ * interpolation {@link #getAlpha() alpha}.
+ * <p>
+ * If a frame takes so long that more than <code>maxStepsPerFrame</code>
+ * ticks are owed, the remaining time is dropped instead of being
+ * caught up, so a slow frame can't cause an ever growing backlog.
+ */
+public class FixedStepLoop implements GameLoop {
+
+    public static final double DEFAULT_TICK_RATE = 60;
+    public static final int DEFAULT_MAX_STEPS_PER_FRAME = 5;
+
+    private final double tickRate;
+    private final double step;
+    private final int maxStepsPerFrame;
+
+    private long last = -1;
+    private double accumulator = 0;
+    private double alpha = 0;
+    private long droppedTicks = 0;
+
+    /**
+     * Constructs a fixed step loop running at {@value #DEFAULT_TICK_RATE}
+     * ticks per second.
+     */
+    public FixedStepLoop() {
+        this(DEFAULT_TICK_RATE);
+    }
+
+    /**
+     * Constructs a fixed step loop with the specified tick rate.
+     * @param tickRate the number of simulation ticks per second.
+     */
+    public FixedStepLoop(double tickRate) {
+        this(tickRate, DEFAULT_MAX_STEPS_PER_FRAME);
+    }
+
+    /**
+     * Constructs a fixed step loop with the specified tick rate and
+     * catch-up limit.
+     * @param tickRate the number of simulation ticks per second.
+     * @param maxStepsPerFrame the most ticks that will be run in a single frame.
+     */
+    public FixedStepLoop(double tickRate, int maxStepsPerFrame) {
+        if (tickRate <= 0) {
+            throw new IllegalArgumentException("tickRate must be positive");
+        }
+        if (maxStepsPerFrame < 1) {
+            throw new IllegalArgumentException("maxStepsPerFrame must be at least 1");
+        }
+        this.tickRate = tickRate;
+        this.step = 1 / tickRate;
+        this.maxStepsPerFrame = maxStepsPerFrame;
+    }
+
+    @Override
+    public void reset() {
+        last = -1;
+        accumulator = 0;
+        alpha = 0;
+    }
+
+    @Override
+    public void frame(long now, Updatable simulation) {
+        if (last < 0) {
+            last = now;
+            return;
+        }
+        accumulator += (now - last) / 1e9;
+        last = now;
+
+        int steps = 0;
+        while (accumulator >= step && steps < maxStepsPerFrame) {
+            simulation.update(step);
+            accumulator -= step;
+            steps++;
+        }
+
+        if (accumulator >= step) {
+            // too far behind, drop the backlog instead of spiralling
+            droppedTicks += (long) (accumulator / step);
+            accumulator %= step;
+        }
+
+        alpha = accumulator / step;
+    }
+
+    @Override
+    public double getAlpha() {
+        return alpha;
+    }
+
+    public double getTickRate() {
+        return tickRate;
+    }
+
+    /**
+     * Returns the length of a single tick, in seconds.
+     * @return the fixed timestep.
+     */
+    public double getStep() {
+        return step;
+    }
+
+    public int getMaxStepsPerFrame() {
+        return maxStepsPerFrame;
+    }
+
+    /**
+     * Returns the number of ticks that were skipped because the
+     * loop fell too far behind.
+     * @return the total number of dropped ticks.
+     */
+    public long getDroppedTicks() {
+        return droppedTicks;
+    }
+
+}
@@ -0,0 +1,63 @@
+/**
+ * GameFX
+ * <p>
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2016 Tarun Boddupalli
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package me.tarunb.gamefx.loop;
+
+import me.tarunb.gamefx.graphics.Updatable;
+
+/**
+ * A strategy that decides how much simulation time is advanced for
+ * each frame delivered by a view's pulse.
+ */
+public interface GameLoop {
+
+    /**
+     * Resets the timing state of this loop. This is called whenever
+     * the owning view (re)starts its loop, so the first frame never
+     * sees the time that passed before the loop was started.
+     */
+    void reset();
+
+    /**
+     * Called once per frame. Implementations call
+     * {@link Updatable#update(double)} on the simulation zero or more
+     * times, with the timestep in seconds.
+     * @param now The timestamp of the current frame, in nanoseconds.
+     * @param simulation The simulation step to advance.
+     */
+    void frame(long now, Updatable simulation);
+
+    /**
+     * Returns how far, from <code>0</code> to <code>1</code>, the last frame
+     * sits between the previous simulation step and the next one.
+     * Renderers can use this to interpolate between the two states.
+     * @return the interpolation alpha for the last frame.
+     */
+    default double getAlpha() {
+        return 1;
+    }
+
+}
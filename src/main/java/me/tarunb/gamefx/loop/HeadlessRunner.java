@@ -0,0 +1,219 @@
+/**
+ * GameFX
+ * <p>
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2016 Tarun Boddupalli
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package me.tarunb.gamefx.loop;
+
+import me.tarunb.gamefx.Callback;
+import me.tarunb.gamefx.graphics.Updatable;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Drives a simulation from a plain thread, without a JavaFX stage or
+ * pulse. Every tick advances the simulation by a fixed timestep of
+ * <code>1 / tickRate</code> seconds.
+ * <p>
+ * By default ticks are paced to run at <code>tickRate</code> in real time.
+ * Time lost to a slow tick or a pause is dropped rather than caught up on
+ * in a burst of ticks.
+ * If the runner is {@link #setUnbounded(boolean) unbounded}, ticks are
+ * run back to back as fast as possible, which is useful for replays
+ * and measuring raw simulation throughput.
+ */
+public class HeadlessRunner implements Runnable {
+
+    private static final long REPORT_INTERVAL = 1_000_000_000L;
+
+    private final Updatable simulation;
+    private final double tickRate;
+    private final double step;
+
+    private volatile boolean unbounded = false;
+    private volatile boolean running = false;
+    private volatile long ticks = 0;
+    private volatile double ticksPerSecond = 0;
+
+    private Callback<HeadlessRunner> onReport;
+    private Thread thread;
+
+    /**
+     * Constructs a runner for the specified simulation.
+     * @param simulation the simulation to step, usually a {@link me.tarunb.gamefx.entity.World}
+     * @param tickRate the number of ticks per simulated second.
+     */
+    public HeadlessRunner(Updatable simulation, double tickRate) {
+        if (tickRate <= 0) {
+            throw new IllegalArgumentException("tickRate must be positive");
+        }
+        this.simulation = simulation;
+        this.tickRate = tickRate;
+        this.step = 1 / tickRate;
+    }
+
+    /**
+     * Starts running ticks on a new thread until {@link #stop()} is called.
+     */
+    public synchronized void start() {
+        if (thread != null) {
+            throw new IllegalStateException("Runner already started");
+        }
+        running = true;
+        thread = new Thread(() -> loop(Long.MAX_VALUE), "GameFX-Headless");
+        thread.start();
+    }
+
+    /**
+     * Stops the runner after the current tick, and waits for its thread to finish.
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    public void stop() throws InterruptedException {
+        Thread t;
+        synchronized (this) {
+            running = false;
+            t = thread;
+            thread = null;
+        }
+        if (t != null && t != Thread.currentThread()) {
+            t.join();
+        }
+    }
+
+    /**
+     * Runs ticks on the calling thread until {@link #stop()} is called.
+     */
+    @Override
+    public void run() {
+        running = true;
+        loop(Long.MAX_VALUE);
+    }
+
+    /**
+     * Runs exactly <code>count</code> ticks on the calling thread, unless
+     * stopped earlier.
+     * @param count the number of ticks to run.
+     */
+    public void run(long count) {
+        running = true;
+        loop(count);
+        running = false;
+    }
+
+    private void loop(long count) {
+        final long period = (long) (1e9 / tickRate);
+        long start = System.nanoTime();
+        long reportStart = start;
+        long reportTicks = ticks;
+        long next = start;
+        boolean paced = false;
+
+        for (long i = 0; i < count && running; i++) {
+            if (!unbounded) {
+                long now = System.nanoTime();
+                if (!paced) {
+                    // pacing starts or resumes now, the time spent unbounded isn't caught up on
+                    next = now;
+                    paced = true;
+                } else if (next < now - period) {
+                    // after a slow tick or a pause, catch up by at most one tick rather than in a burst
+                    next = now - period;
+                }
+                long wait = next - now;
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                next += period;
+            } else {
+                paced = false;
+            }
+
+            simulation.update(step);
+            ticks++;
+
+            long now = System.nanoTime();
+            if (now - reportStart >= REPORT_INTERVAL) {
+                ticksPerSecond = (ticks - reportTicks) * 1e9 / (now - reportStart);
+                reportStart = now;
+                reportTicks = ticks;
+                if (onReport != null) {
+                    onReport.run(this);
+                }
+            }
+        }
+
+        long now = System.nanoTime();
+        if (ticks > reportTicks && now > reportStart) {
+            ticksPerSecond = (ticks - reportTicks) * 1e9 / (now - reportStart);
+        }
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    public boolean isUnbounded() {
+        return unbounded;
+    }
+
+    /**
+     * Sets whether ticks are run as fast as possible (<code>true</code>)
+     * or paced to the tick rate in real time (<code>false</code>).
+     * @param unbounded whether ticks are unpaced
+     */
+    public void setUnbounded(boolean unbounded) {
+        this.unbounded = unbounded;
+    }
+
+    public double getTickRate() {
+        return tickRate;
+    }
+
+    /**
+     * Returns the total number of ticks run so far.
+     * @return the tick count.
+     */
+    public long getTicks() {
+        return ticks;
+    }
+
+    /**
+     * Returns the measured throughput, in ticks per real second, over
+     * the most recent reporting interval of about one second.
+     * @return the measured ticks per second.
+     */
+    public double getTicksPerSecond() {
+        return ticksPerSecond;
+    }
+
+    /**
+     * Sets a callback that is run on the runner's thread about once a
+     * second, after {@link #getTicksPerSecond()} has been updated.
+     * @param onReport the callback, or null to remove it.
+     */
+    public void setOnReport(Callback<HeadlessRunner> onReport) {
+        this.onReport = onReport;
+    }
+
+}
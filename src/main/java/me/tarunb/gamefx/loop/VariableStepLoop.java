@@ -0,0 +1,80 @@
+/**
+ * GameFX
+ * <p>
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2016 Tarun Boddupalli
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package me.tarunb.gamefx.loop;
+
+import me.tarunb.gamefx.graphics.Updatable;
+
+/**
+ * Steps the simulation once per frame, with whatever time elapsed
+ * since the previous frame. This is the default {@link GameLoop}.
+ */
+public class VariableStepLoop implements GameLoop {
+
+    private final double maxStep;
+
+    private long last = -1;
+
+    /**
+     * Constructs a variable step loop with no upper bound on the timestep.
+     */
+    public VariableStepLoop() {
+        this(Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * Constructs a variable step loop that never steps by more
+     * than <code>maxStep</code> seconds at once.
+     * @param maxStep the largest timestep, in seconds.
+     */
+    public VariableStepLoop(double maxStep) {
+        if (maxStep <= 0) {
+            throw new IllegalArgumentException("maxStep must be positive");
+        }
+        this.maxStep = maxStep;
+    }
+
+    @Override
+    public void reset() {
+        last = -1;
+    }
+
+    @Override
+    public void frame(long now, Updatable simulation) {
+        if (last < 0) {
+            last = now;
+            return;
+        }
+        double dt = Math.min((now - last) / 1e9, maxStep);
+        last = now;
+        simulation.update(dt);
+    }
+
+    public double getMaxStep() {
+        return maxStep;
+    }
+
+}
@@ -0,0 +1,314 @@
+/**
+ * GameFX
+ * <p>
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2016 Tarun Boddupalli
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package me.tarunb.gamefx.metrics;
+
+import me.tarunb.gamefx.Callback;
+
+import java.lang.management.ManagementFactory;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Collects timings for the frames of a {@link me.tarunb.gamefx.view.View}:
+ * the time between frames, and the time spent in each {@link Phase}.
+ * <p>
+ * Measurements are collected over a window, by default one second. At the
+ * end of each window the listener set with {@link #setOnReport} is called,
+ * and the histograms are cleared for the next window, so the percentiles
+ * always describe recent frames. Reading the metrics is only safe from the
+ * listener, or from the JavaFX application thread.
+ */
+public class FrameMetrics {
+
+    /**
+     * The parts of a frame that are timed separately.
+     */
+    public enum Phase {
+        /** Delivering queued input events to handlers. */
+        INPUT,
+        /** Stepping entities, physics and collisions. */
+        UPDATE,
+        /** Copying entity positions to their nodes. */
+        SYNC,
+        /** Drawing canvases and particles. */
+        RENDER
+    }
+
+    private static final Phase[] PHASES = Phase.values();
+
+    public static final long DEFAULT_REPORT_INTERVAL = 1_000_000_000L;
+
+    private final Histogram frameTime = new Histogram();
+    private final Map<Phase, Histogram> phases = new EnumMap<>(Phase.class);
+    private final long[] phaseTotals = new long[PHASES.length];
+
+    private boolean enabled = false;
+    private long reportInterval = DEFAULT_REPORT_INTERVAL;
+    private Callback<FrameMetrics> onReport;
+
+    private long lastFrame = -1;
+    private long windowStart = -1;
+    private long frames = 0;
+    private long ticks = 0;
+    private int entityCount = 0;
+
+    private final AllocationCounter allocations = AllocationCounter.create();
+    private long allocatedAtWindowStart = -1;
+    private long allocatedBytes = -1;
+    private long allocatedBytesPerFrame = -1;
+
+    private long reports = 0;
+    private String summary = "";
+
+    public FrameMetrics() {
+        for (Phase phase : PHASES) {
+            phases.put(phase, new Histogram());
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Sets whether frames are measured. Defaults to false.
+     * @param enabled true to measure frames
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+        lastFrame = -1;
+        windowStart = -1;
+    }
+
+    /**
+     * Adds time to a phase of the current frame.
+     * @param phase the phase the time was spent in
+     * @param nanos the time spent, in nanoseconds
+     */
+    public void add(Phase phase, long nanos) {
+        phaseTotals[phase.ordinal()] += nanos;
+    }
+
+    /**
+     * Counts a simulation tick in the current frame.
+     */
+    public void tick() {
+        ticks++;
+    }
+
+    /**
+     * Ends the current frame, recording the time spent in every phase.
+     * @param now the timestamp of the frame, in nanoseconds
+     * @param entityCount the number of live entities
+     */
+    public void endFrame(long now, int entityCount) {
+        if (lastFrame >= 0) {
+            frameTime.record(now - lastFrame);
+        }
+        lastFrame = now;
+        for (int i = 0; i < PHASES.length; i++) {
+            phases.get(PHASES[i]).record(phaseTotals[i]);
+            phaseTotals[i] = 0;
+        }
+        this.entityCount = entityCount;
+        frames++;
+
+        if (windowStart < 0) {
+            windowStart = now;
+            allocatedAtWindowStart = allocations.getAllocatedBytes();
+        } else if (now - windowStart >= reportInterval) {
+            long allocated = allocations.getAllocatedBytes();
+            allocatedBytes = allocated < 0 || allocatedAtWindowStart < 0 ? -1 : allocated - allocatedAtWindowStart;
+            allocatedBytesPerFrame = allocatedBytes < 0 ? -1 : allocatedBytes / frames;
+            summary = toString();
+            reports++;
+            if (onReport != null) {
+                onReport.run(this);
+            }
+            reset();
+            windowStart = now;
+            allocatedAtWindowStart = allocated;
+        }
+    }
+
+    private void reset() {
+        frameTime.reset();
+        for (Histogram histogram : phases.values()) {
+            histogram.reset();
+        }
+        frames = 0;
+        ticks = 0;
+    }
+
+    /**
+     * Returns the time between consecutive frames in the current window.
+     * @return the frame time histogram
+     */
+    public Histogram getFrameTime() {
+        return frameTime;
+    }
+
+    /**
+     * Returns the time spent per frame in the specified phase, in the current window.
+     * @param phase the phase
+     * @return the histogram for the phase
+     */
+    public Histogram getPhase(Phase phase) {
+        return phases.get(phase);
+    }
+
+    /**
+     * Returns the time spent per frame updating the simulation.
+     * Same as <code>getPhase(Phase.UPDATE)</code>.
+     * @return the update time histogram
+     */
+    public Histogram getUpdateTime() {
+        return phases.get(Phase.UPDATE);
+    }
+
+    public long getFrames() {
+        return frames;
+    }
+
+    public long getTicks() {
+        return ticks;
+    }
+
+    /**
+     * Returns the number of live entities at the end of the last frame.
+     * @return the number of entities
+     */
+    public int getEntityCount() {
+        return entityCount;
+    }
+
+    /**
+     * Returns an estimate of the bytes allocated by the thread that runs
+     * the frames, during the last complete window.
+     * @return the bytes allocated, or <code>-1</code> if the JVM can't tell
+     */
+    public long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    /**
+     * Returns the bytes allocated per frame, averaged over the last complete window.
+     * @return the bytes allocated per frame, or <code>-1</code> if the JVM can't tell
+     */
+    public long getAllocatedBytesPerFrame() {
+        return allocatedBytesPerFrame;
+    }
+
+    /**
+     * Returns the number of windows that have been completed.
+     * @return the number of reports so far
+     */
+    public long getReports() {
+        return reports;
+    }
+
+    /**
+     * Returns a readable summary of the last complete window.
+     * @return the summary, or an empty string before the first window ends
+     */
+    public String getSummary() {
+        return summary;
+    }
+
+    public long getReportInterval() {
+        return reportInterval;
+    }
+
+    /**
+     * Sets the length of the window measurements are collected over.
+     * @param reportInterval the window length, in nanoseconds
+     */
+    public void setReportInterval(long reportInterval) {
+        if (reportInterval <= 0) {
+            throw new IllegalArgumentException("reportInterval must be positive");
+        }
+        this.reportInterval = reportInterval;
+    }
+
+    /**
+     * Sets a listener that is called at the end of every window, before
+     * the histograms are cleared, for example to export them.
+     * @param onReport the listener
+     */
+    public void setOnReport(Callback<FrameMetrics> onReport) {
+        this.onReport = onReport;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("frame   p50 %6.2f ms  p99 %6.2f ms  (%d fps)%n",
+                frameTime.getPercentile(50) / 1e6, frameTime.getPercentile(99) / 1e6,
+                Math.round(frames * 1e9 / reportInterval)));
+        for (Phase phase : PHASES) {
+            Histogram histogram = phases.get(phase);
+            sb.append(String.format("%-7s p50 %6.2f ms  p99 %6.2f ms%n", phase.name().toLowerCase(),
+                    histogram.getPercentile(50) / 1e6, histogram.getPercentile(99) / 1e6));
+        }
+        sb.append("entities ").append(entityCount).append("  ticks ").append(ticks);
+        if (allocatedBytes >= 0) {
+            sb.append(String.format("  alloc %.1f KB/frame", allocatedBytesPerFrame / 1024.0));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Reads the bytes allocated by the current thread, where the JVM supports it.
+     */
+    private static class AllocationCounter {
+
+        static AllocationCounter create() {
+            try {
+                if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean) {
+                    com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+                    if (bean.isThreadAllocatedMemorySupported() && bean.isThreadAllocatedMemoryEnabled()) {
+                        return new AllocationCounter() {
+                            @Override
+                            long getAllocatedBytes() {
+                                return bean.getThreadAllocatedBytes(Thread.currentThread().getId());
+                            }
+                        };
+                    }
+                }
+            } catch (LinkageError | UnsupportedOperationException e) {
+                // not a HotSpot JVM
+            }
+            return new AllocationCounter();
+        }
+
+        long getAllocatedBytes() {
+            return -1;
+        }
+
+    }
+
+}
@@ -0,0 +1,304 @@
+/**
+ * GameFX
+ * <p>
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2016 Tarun Boddupalli
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package me.tarunb.gamefx.particles;
+
+import javafx.scene.paint.Color;
+import me.tarunb.gamefx.entity.TickListener;
+import me.tarunb.gamefx.entity.World;
+import me.tarunb.gamefx.graphics.Updatable;
+import me.tarunb.gamefx.physics.Physics;
+
+import java.util.SplittableRandom;
+
+/**
+ * Emits and simulates a large number of short-lived points, such as sparks
+ * or smoke, without the cost of an {@link me.tarunb.gamefx.entity.Entity}
+ * per point. Particles are stored in primitive arrays, and dead particles
+ * are swapped with the last live one, so the live particles always fill
+ * the front of the arrays.
+ * <p>
+ * An emitter is stepped with its world when it's added to a view with
+ * {@link me.tarunb.gamefx.view.View#addEmitter}, or to a world with
+ * {@link World#addTickListener}. Particles are drawn by a {@link ParticleRenderer}.
+ * <p>
+ * Positions are in metres, velocities in metres per second, and angles
+ * in degrees. Particles fall with {@link Physics#GRAVITY}, scaled by
+ * {@link #setGravityScale(double)}.
+ */
+public class ParticleEmitter implements Updatable, TickListener {
+
+    public static final int DEFAULT_CAPACITY = 16384;
+
+    private final int capacity;
+    private int count = 0;
+
+    final double[] x, y, vx, vy;
+    final float[] age, life;
+
+    private final SplittableRandom random;
+
+    private double emitX, emitY;
+    private double rate = 0;
+    private double pending = 0;
+    private double angle = 90, spread = 360;
+    private double minSpeed = 1, maxSpeed = 2;
+    private double minLife = 1, maxLife = 1;
+    private double gravityScale = 1;
+    private int color = 0xFFFFFFFF;
+    private boolean fade = true;
+
+    public ParticleEmitter() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructs an emitter that holds at most <code>capacity</code> live
+     * particles. Particles emitted while it's full are dropped.
+     * @param capacity the maximum number of live particles
+     */
+    public ParticleEmitter(int capacity) {
+        this(capacity, System.nanoTime());
+    }
+
+    /**
+     * Constructs an emitter with a fixed random seed, so the particles it
+     * emits are the same every run, for example in a replay.
+     * @param capacity the maximum number of live particles
+     * @param seed the random seed
+     */
+    public ParticleEmitter(int capacity, long seed) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        this.capacity = capacity;
+        this.random = new SplittableRandom(seed);
+        x = new double[capacity];
+        y = new double[capacity];
+        vx = new double[capacity];
+        vy = new double[capacity];
+        age = new float[capacity];
+        life = new float[capacity];
+    }
+
+    /**
+     * Emits <code>n</code> particles at once.
+     * @param n the number of particles to emit
+     */
+    public void emit(int n) {
+        n = Math.min(n, capacity - count);
+        for (int i = 0; i < n; i++) {
+            int p = count++;
+            double a = Math.toRadians(angle + (random.nextDouble() - 0.5) * spread);
+            double speed = minSpeed + random.nextDouble() * (maxSpeed - minSpeed);
+            x[p] = emitX;
+            y[p] = emitY;
+            vx[p] = Math.cos(a) * speed;
+            vy[p] = Math.sin(a) * speed;
+            age[p] = 0;
+            life[p] = (float) (minLife + random.nextDouble() * (maxLife - minLife));
+        }
+    }
+
+    /**
+     * Emits particles at the configured rate, moves every live particle,
+     * and removes the ones that have reached the end of their life.
+     * @param dt The amount of simulated time, in seconds.
+     */
+    @Override
+    public void update(double dt) {
+        pending += rate * dt;
+        if (pending >= 1) {
+            int n = (int) pending;
+            pending -= n;
+            emit(n);
+        }
+
+        double gx = Physics.GRAVITY.getX() * gravityScale * dt;
+        double gy = Physics.GRAVITY.getY() * gravityScale * dt;
+        float fdt = (float) dt;
+        int n = count;
+        for (int i = 0; i < n; ) {
+            float a = age[i] + fdt;
+            if (a >= life[i]) {
+                // swap the last live particle into this slot, and look at it next
+                n--;
+                x[i] = x[n];
+                y[i] = y[n];
+                vx[i] = vx[n];
+                vy[i] = vy[n];
+                age[i] = age[n];
+                life[i] = life[n];
+                continue;
+            }
+            age[i] = a;
+            vx[i] += gx;
+            vy[i] += gy;
+            x[i] += vx[i] * dt;
+            y[i] += vy[i] * dt;
+            i++;
+        }
+        count = n;
+    }
+
+    @Override
+    public void afterTick(World world, double dt) {
+        update(dt);
+    }
+
+    /**
+     * Removes every live particle.
+     */
+    public void clear() {
+        count = 0;
+        pending = 0;
+    }
+
+    /**
+     * Returns the number of live particles.
+     * @return the number of live particles
+     */
+    public int getCount() {
+        return count;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Returns the number of bytes the particle arrays of this emitter take.
+     * @return the size of this emitter, in bytes
+     */
+    public long estimateMemory() {
+        return capacity * (4 * 8L + 2 * 4L);
+    }
+
+    /**
+     * Sets where new particles are emitted from.
+     * @param x the x coordinate, in metres
+     * @param y the y coordinate, in metres
+     */
+    public void setPosition(double x, double y) {
+        this.emitX = x;
+        this.emitY = y;
+    }
+
+    public double getX() {
+        return emitX;
+    }
+
+    public double getY() {
+        return emitY;
+    }
+
+    public double getRate() {
+        return rate;
+    }
+
+    /**
+     * Sets how many particles are emitted per second, on top of the ones
+     * emitted with {@link #emit(int)}.
+     * @param rate the number of particles per second
+     */
+    public void setRate(double rate) {
+        this.rate = rate;
+    }
+
+    /**
+     * Sets the direction new particles are emitted in.
+     * @param angle the average direction, in degrees
+     * @param spread the width of the cone around <code>angle</code>, in degrees
+     */
+    public void setDirection(double angle, double spread) {
+        this.angle = angle;
+        this.spread = spread;
+    }
+
+    /**
+     * Sets the range of speeds new particles are emitted with.
+     * @param min the lowest speed, in metres per second
+     * @param max the highest speed, in metres per second
+     */
+    public void setSpeed(double min, double max) {
+        this.minSpeed = min;
+        this.maxSpeed = max;
+    }
+
+    /**
+     * Sets the range of lifetimes new particles are emitted with.
+     * @param min the shortest lifetime, in seconds
+     * @param max the longest lifetime, in seconds
+     */
+    public void setLifetime(double min, double max) {
+        if (min <= 0 || max < min) {
+            throw new IllegalArgumentException("Invalid lifetime range");
+        }
+        this.minLife = min;
+        this.maxLife = max;
+    }
+
+    public double getGravityScale() {
+        return gravityScale;
+    }
+
+    /**
+     * Sets how strongly {@link Physics#GRAVITY} pulls on the particles of
+     * this emitter. <code>0</code> makes them float, negative values make them rise.
+     * @param gravityScale the factor gravity is multiplied by
+     */
+    public void setGravityScale(double gravityScale) {
+        this.gravityScale = gravityScale;
+    }
+
+    public Color getColor() {
+        return Color.rgb((color >> 16) & 0xFF, (color >> 8) & 0xFF, color & 0xFF, ((color >>> 24) & 0xFF) / 255.0);
+    }
+
+    public void setColor(Color color) {
+        this.color = ((int) Math.round(color.getOpacity() * 255) << 24)
+                | ((int) Math.round(color.getRed() * 255) << 16)
+                | ((int) Math.round(color.getGreen() * 255) << 8)
+                | (int) Math.round(color.getBlue() * 255);
+    }
+
+    int getArgb() {
+        return color;
+    }
+
+    public boolean isFade() {
+        return fade;
+    }
+
+    /**
+     * Sets whether particles fade out over their lifetime. Defaults to true.
+     * @param fade true to fade particles out
+     */
+    public void setFade(boolean fade) {
+        this.fade = fade;
+    }
+
+}
@@ -0,0 +1,198 @@
+/**
+ * GameFX
+ * <p>
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2016 Tarun Boddupalli
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package me.tarunb.gamefx.particles;
+
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
+import me.tarunb.gamefx.physics.Physics;
+
+import java.nio.IntBuffer;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Draws the particles of many emitters into a single {@link WritableImage}.
+ * Particles are plotted into a plain pixel array, which is handed to the
+ * image in one call per frame, so the cost of drawing doesn't depend on
+ * the number of nodes or draw calls. The image can be shown in an
+ * {@link javafx.scene.image.ImageView}, or drawn onto a canvas with
+ * {@link #draw(GraphicsContext)}.
+ */
+public class ParticleRenderer {
+
+    private static final PixelFormat<IntBuffer> FORMAT = PixelFormat.getIntArgbPreInstance();
+
+    private WritableImage image;
+    private int[] pixels = new int[0];
+    private int width, height;
+    private int pointSize = 1;
+
+    /**
+     * Clears the image and draws the live particles of every emitter into
+     * it. The image is replaced if the size changed.
+     * @param width the width of the image, in pixels
+     * @param height the height of the image, in pixels
+     * @param emitters the emitters to draw
+     * @return the image the particles were drawn into
+     */
+    public WritableImage render(int width, int height, List<ParticleEmitter> emitters) {
+        return render(width, height, emitters, 0, 0);
+    }
+
+    /**
+     * Clears the image and draws the live particles of every emitter into
+     * it, relative to a viewport. The image is replaced if the size changed.
+     * @param width the width of the image, in pixels
+     * @param height the height of the image, in pixels
+     * @param emitters the emitters to draw
+     * @param originX the x coordinate of the world drawn at the left of the image, in metres
+     * @param originY the y coordinate of the world drawn at the bottom of the image, in metres
+     * @return the image the particles were drawn into
+     */
+    public WritableImage render(int width, int height, List<ParticleEmitter> emitters, double originX, double originY) {
+        width = Math.max(width, 1);
+        height = Math.max(height, 1);
+        if (image == null || width != this.width || height != this.height) {
+            this.width = width;
+            this.height = height;
+            image = new WritableImage(width, height);
+            pixels = new int[width * height];
+        } else {
+            Arrays.fill(pixels, 0);
+        }
+
+        for (int i = 0, n = emitters.size(); i < n; i++) {
+            plot(emitters.get(i), originX, originY);
+        }
+
+        image.getPixelWriter().setPixels(0, 0, width, height, FORMAT, pixels, 0, width);
+        return image;
+    }
+
+    private void plot(ParticleEmitter emitter, double originX, double originY) {
+        int argb = emitter.getArgb();
+        int alpha = argb >>> 24;
+        int r = (argb >> 16) & 0xFF, g = (argb >> 8) & 0xFF, b = argb & 0xFF;
+        boolean fade = emitter.isFade();
+        double ppm = Physics.PPM;
+        int size = pointSize;
+        int[] pixels = this.pixels;
+        int width = this.width, height = this.height;
+
+        double[] xs = emitter.x, ys = emitter.y;
+        float[] ages = emitter.age, lives = emitter.life;
+        for (int i = 0, n = emitter.getCount(); i < n; i++) {
+            double fx = Math.floor((xs[i] - originX) * ppm);
+            double fy = height - 1 - Math.floor((ys[i] - originY) * ppm);
+            // checked before casting, since a particle far off screen doesn't fit in an int, and NaN fails every test
+            if (!(fx >= 0 && fy >= 0 && fx <= width - size && fy <= height - size)) {
+                continue;
+            }
+            int px = (int) fx, py = (int) fy;
+
+            int a = fade ? (int) (alpha * (1 - ages[i] / lives[i])) : alpha;
+            if (a <= 0) {
+                continue;
+            }
+            // premultiplied source, blended over what's already there
+            int src = (a << 24) | ((r * a / 255) << 16) | ((g * a / 255) << 8) | (b * a / 255);
+            int keep = 255 - a;
+            for (int dy = 0; dy < size; dy++) {
+                int row = (py + dy) * width + px;
+                for (int dx = 0; dx < size; dx++) {
+                    int dst = pixels[row + dx];
+                    if (keep == 0 || dst == 0) {
+                        pixels[row + dx] = src;
+                    } else {
+                        pixels[row + dx] = src + blend(dst, keep);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Scales every channel of a premultiplied pixel by <code>keep / 255</code>.
+     */
+    private static int blend(int pixel, int keep) {
+        int a = ((pixel >>> 24) * keep / 255) << 24;
+        int r = (((pixel >> 16) & 0xFF) * keep / 255) << 16;
+        int g = (((pixel >> 8) & 0xFF) * keep / 255) << 8;
+        int b = (pixel & 0xFF) * keep / 255;
+        return a | r | g | b;
+    }
+
+    /**
+     * Draws the image from the last {@link #render} call onto a canvas.
+     * @param gc the graphics context of the canvas
+     */
+    public void draw(GraphicsContext gc) {
+        if (image != null) {
+            gc.drawImage(image, 0, 0);
+        }
+    }
+
+    public WritableImage getImage() {
+        return image;
+    }
+
+    /**
+     * Drops the image and pixel buffer, which are allocated again by the
+     * next {@link #render(int, int, List)}.
+     */
+    public void release() {
+        image = null;
+        pixels = new int[0];
+        width = 0;
+        height = 0;
+    }
+
+    /**
+     * Returns the number of bytes the image and pixel buffer take, roughly.
+     * @return the estimated size of this renderer, in bytes
+     */
+    public long estimateMemory() {
+        return pixels.length * 8L;
+    }
+
+    public int getPointSize() {
+        return pointSize;
+    }
+
+    /**
+     * Sets the size of the square each particle is drawn as. Defaults to <code>1</code>.
+     * @param pointSize the width and height of a particle, in pixels
+     */
+    public void setPointSize(int pointSize) {
+        if (pointSize < 1) {
+            throw new IllegalArgumentException("pointSize must be positive");
+        }
+        this.pointSize = pointSize;
+    }
+
+}
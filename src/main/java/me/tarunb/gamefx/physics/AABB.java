@@ -0,0 +1,125 @@
+/**
+ * GameFX
+ * <p>
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2016 Tarun Boddupalli
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package me.tarunb.gamefx.physics;
+
+/**
+ * A mutable axis-aligned bounding box, in world units (metres).
+ * Boxes are meant to be reused, so that bounds can be computed every
+ * tick without allocating.
+ */
+public class AABB {
+
+    private double minX, minY, maxX, maxY;
+
+    public AABB() {
+    }
+
+    public AABB(double minX, double minY, double maxX, double maxY) {
+        set(minX, minY, maxX, maxY);
+    }
+
+    public AABB set(double minX, double minY, double maxX, double maxY) {
+        this.minX = minX;
+        this.minY = minY;
+        this.maxX = maxX;
+        this.maxY = maxY;
+        return this;
+    }
+
+    public double getMinX() {
+        return minX;
+    }
+
+    public double getMinY() {
+        return minY;
+    }
+
+    public double getMaxX() {
+        return maxX;
+    }
+
+    public double getMaxY() {
+        return maxY;
+    }
+
+    public double getWidth() {
+        return maxX - minX;
+    }
+
+    public double getHeight() {
+        return maxY - minY;
+    }
+
+    /**
+     * Returns whether this box and the other box overlap.
+     * Boxes that only touch along an edge don't overlap.
+     * @param other the other box
+     * @return true if the boxes overlap.
+     */
+    public boolean overlaps(AABB other) {
+        return overlaps(minX, minY, maxX, maxY, other.minX, other.minY, other.maxX, other.maxY);
+    }
+
+    public boolean contains(double x, double y) {
+        return x >= minX && x <= maxX && y >= minY && y <= maxY;
+    }
+
+    /**
+     * Returns whether this box and the circle with the specified center
+     * and radius intersect.
+     * @param x the x coordinate of the center of the circle
+     * @param y the y coordinate of the center of the circle
+     * @param radius the radius of the circle
+     * @return true if the box and circle intersect.
+     */
+    public boolean intersectsCircle(double x, double y, double radius) {
+        return intersectsCircle(minX, minY, maxX, maxY, x, y, radius);
+    }
+
+    public static boolean overlaps(double aMinX, double aMinY, double aMaxX, double aMaxY,
+                                   double bMinX, double bMinY, double bMaxX, double bMaxY) {
+        return aMinX < bMaxX && bMinX < aMaxX && aMinY < bMaxY && bMinY < aMaxY;
+    }
+
+    public static boolean intersectsCircle(double minX, double minY, double maxX, double maxY,
+                                           double x, double y, double radius) {
+        double dx = x - Math.max(minX, Math.min(x, maxX));
+        double dy = y - Math.max(minY, Math.min(y, maxY));
+        return dx * dx + dy * dy <= radius * radius;
+    }
+
+    @Override
+    public String toString() {
+        return "AABB{" +
+                "minX=" + minX +
+                ", minY=" + minY +
+                ", maxX=" + maxX +
+                ", maxY=" + maxY +
+                '}';
+    }
+
+}
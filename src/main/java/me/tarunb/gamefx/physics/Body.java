@@ -0,0 +1,217 @@
+/**
+ * GameFX
+ * <p>
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2016 Tarun Boddupalli
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package me.tarunb.gamefx.physics;
+
+/**
+ * A handle to a body in a {@link BodyStore}. The handle stays valid while
+ * other bodies in the store are freed, even though the slot it refers to
+ * may change.
+ */
+public final class Body {
+
+    final BodyStore store;
+    int index;
+
+    private final Position position;
+    private final Vector velocity;
+    private final Vector acceleration;
+
+    Body(BodyStore store, int index) {
+        this.store = store;
+        this.index = index;
+        this.position = new StoredPosition(this);
+        this.velocity = new StoredVector(this, false);
+        this.acceleration = new StoredVector(this, true);
+    }
+
+    public BodyStore getStore() {
+        return store;
+    }
+
+    /**
+     * Returns the slot this body currently occupies in its store,
+     * or <code>-1</code> if it has been freed.
+     * @return the index of this body in its store.
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * Returns whether this body still belongs to its store.
+     * @return true if this body hasn't been freed.
+     */
+    public boolean isValid() {
+        return index >= 0;
+    }
+
+    /**
+     * Returns a live view of the position of this body.
+     * Reading or writing it reads or writes the store directly.
+     * @return the position of this body.
+     */
+    public Position getPosition() {
+        return position;
+    }
+
+    public double getPreviousX() {
+        return store.px[index];
+    }
+
+    public double getPreviousY() {
+        return store.py[index];
+    }
+
+    /**
+     * Sets the previous position of this body to its current position,
+     * so that a teleport isn't interpolated.
+     */
+    public void resetPrevious() {
+        store.px[index] = store.x[index];
+        store.py[index] = store.y[index];
+    }
+
+    /**
+     * Overwrites the position and velocity of this body without waking it,
+     * for constraints such as collisions that run after the store has been
+     * integrated. Unlike the setters of {@link #getPosition()}, this doesn't
+     * reset the previous position either, so the move is interpolated.
+     * @param x the x coordinate, in metres
+     * @param y the y coordinate, in metres
+     * @param vx the x component of the velocity, in metres per second
+     * @param vy the y component of the velocity, in metres per second
+     */
+    public void constrain(double x, double y, double vx, double vy) {
+        store.x[index] = x;
+        store.y[index] = y;
+        store.vx[index] = vx;
+        store.vy[index] = vy;
+    }
+
+    /**
+     * Returns the mass of this body. Defaults to <code>1</code>.
+     * @return the mass, in kilograms
+     */
+    public double getMass() {
+        return 1 / store.invMass[index];
+    }
+
+    public void setMass(double mass) {
+        if (!(mass > 0)) {
+            throw new IllegalArgumentException("mass must be positive");
+        }
+        store.invMass[index] = 1 / mass;
+    }
+
+    /**
+     * Returns the linear damping of this body, which pulls its velocity
+     * towards zero. Defaults to <code>0</code>.
+     * @return the damping, per second
+     */
+    public double getDamping() {
+        return store.damping[index];
+    }
+
+    public void setDamping(double damping) {
+        if (damping < 0) {
+            throw new IllegalArgumentException("damping cannot be negative");
+        }
+        store.damping[index] = damping;
+        wake();
+    }
+
+    /**
+     * Applies a force to this body during the next step.
+     * @param fx the x component, in newtons
+     * @param fy the y component, in newtons
+     */
+    public void applyForce(double fx, double fy) {
+        store.fx[index] += fx;
+        store.fy[index] += fy;
+        wake();
+    }
+
+    /**
+     * Applies an impulse to this body at the start of the next step,
+     * which changes its velocity by <code>impulse / mass</code>.
+     * @param jx the x component, in newton seconds
+     * @param jy the y component, in newton seconds
+     */
+    public void applyImpulse(double jx, double jy) {
+        store.jx[index] += jx;
+        store.jy[index] += jy;
+        wake();
+    }
+
+    /**
+     * Clears the forces and impulses applied to this body since the last step.
+     */
+    public void clearForces() {
+        store.fx[index] = 0;
+        store.fy[index] = 0;
+        store.jx[index] = 0;
+        store.jy[index] = 0;
+    }
+
+    /**
+     * Sets the time this body is integrated by in the next step of its
+     * store, while the store is {@link BodyStore#schedule(double) scheduled}.
+     * @param stepTime the time, in seconds, or <code>0</code> to skip this body
+     */
+    public void setStepTime(double stepTime) {
+        store.stepTime[index] = stepTime;
+    }
+
+    public boolean isSleeping() {
+        return store.isSleeping(index);
+    }
+
+    /**
+     * Wakes this body, if it was asleep.
+     */
+    public void wake() {
+        store.rest[index] = 0;
+    }
+
+    /**
+     * Returns a live view of the velocity of this body.
+     * @return the velocity of this body.
+     */
+    public Vector getVelocity() {
+        return velocity;
+    }
+
+    /**
+     * Returns a live view of the acceleration of this body,
+     * applied on top of {@link Physics#GRAVITY}.
+     * @return the acceleration of this body.
+     */
+    public Vector getAcceleration() {
+        return acceleration;
+    }
+
+}
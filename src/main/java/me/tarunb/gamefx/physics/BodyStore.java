@@ -0,0 +1,539 @@
+/**
+ * GameFX
+ * <p>
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2016 Tarun Boddupalli
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package me.tarunb.gamefx.physics;
+
+import java.util.Arrays;
+
+/**
+ * A dense, structure-of-arrays store for the position, velocity,
+ * acceleration, mass, damping and accumulated forces of many bodies. Each
+ * body occupies one slot in a set of primitive <code>double[]</code>
+ * arrays, and the slots are always kept packed at the front, so {@link #integrate(double)} is a single tight
+ * loop over contiguous memory.
+ * <p>
+ * Bodies are referred to through {@link Body} handles, which stay valid
+ * when other bodies are freed and slots are moved around.
+ * <p>
+ * Bodies that have moved slower than a threshold for a number of ticks can
+ * be put to sleep, see {@link #setSleep(double, int)}. Sleeping bodies are
+ * skipped by {@link #integrate(double)} until they are woken, which happens
+ * whenever their position, velocity or acceleration is written.
+ */
+public class BodyStore {
+
+    private static final int DEFAULT_CAPACITY = 256;
+
+    double[] x, y;
+    double[] px, py;
+    double[] vx, vy;
+    double[] ax, ay;
+    // accumulated forces and impulses, cleared every step
+    double[] fx, fy;
+    double[] jx, jy;
+    double[] invMass;
+    double[] damping;
+    // number of consecutive ticks each body has been slower than the sleep speed
+    int[] rest;
+    // time each body is integrated by while the store is scheduled, 0 to skip it
+    double[] stepTime;
+    private boolean scheduled = false;
+
+    private double sleepSpeedSquared = -1;
+    private int sleepDelay = Integer.MAX_VALUE;
+
+    private Integrator integrator = Integrator.SEMI_IMPLICIT_EULER;
+
+    private Body[] bodies;
+    private int size = 0;
+
+    /**
+     * Constructs a body store with a default initial capacity.
+     */
+    public BodyStore() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructs a body store with the specified initial capacity.
+     * The store grows as needed.
+     * @param capacity the number of bodies to allocate room for.
+     */
+    public BodyStore(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be at least 1");
+        }
+        x = new double[capacity];
+        y = new double[capacity];
+        px = new double[capacity];
+        py = new double[capacity];
+        vx = new double[capacity];
+        vy = new double[capacity];
+        ax = new double[capacity];
+        ay = new double[capacity];
+        fx = new double[capacity];
+        fy = new double[capacity];
+        jx = new double[capacity];
+        jy = new double[capacity];
+        invMass = new double[capacity];
+        damping = new double[capacity];
+        rest = new int[capacity];
+        stepTime = new double[capacity];
+        bodies = new Body[capacity];
+    }
+
+    /**
+     * Allocates a new body with the specified initial state.
+     * @param position the initial position
+     * @param velocity the initial velocity
+     * @param acceleration the initial acceleration, on top of {@link Physics#GRAVITY}
+     * @return a handle to the new body
+     */
+    public Body allocate(Position position, Vector velocity, Vector acceleration) {
+        if (size == bodies.length) {
+            grow();
+        }
+        int i = size++;
+        x[i] = position.getX();
+        y[i] = position.getY();
+        px[i] = x[i];
+        py[i] = y[i];
+        vx[i] = velocity.getX();
+        vy[i] = velocity.getY();
+        ax[i] = acceleration.getX();
+        ay[i] = acceleration.getY();
+        fx[i] = 0;
+        fy[i] = 0;
+        jx[i] = 0;
+        jy[i] = 0;
+        invMass[i] = 1;
+        damping[i] = 0;
+        rest[i] = 0;
+        stepTime[i] = 0;
+        Body body = new Body(this, i);
+        bodies[i] = body;
+        return body;
+    }
+
+    /**
+     * Frees the slot used by the specified body. The last body in the
+     * store is moved into the freed slot, so the store stays packed.
+     * @param body the body to free
+     */
+    public void free(Body body) {
+        if (body.store != this || body.index < 0) {
+            throw new IllegalArgumentException("Body does not belong to this store");
+        }
+        int hole = body.index;
+        int last = --size;
+        if (hole != last) {
+            x[hole] = x[last];
+            y[hole] = y[last];
+            px[hole] = px[last];
+            py[hole] = py[last];
+            vx[hole] = vx[last];
+            vy[hole] = vy[last];
+            ax[hole] = ax[last];
+            ay[hole] = ay[last];
+            fx[hole] = fx[last];
+            fy[hole] = fy[last];
+            jx[hole] = jx[last];
+            jy[hole] = jy[last];
+            invMass[hole] = invMass[last];
+            damping[hole] = damping[last];
+            rest[hole] = rest[last];
+            stepTime[hole] = stepTime[last];
+            bodies[hole] = bodies[last];
+            bodies[hole].index = hole;
+        }
+        bodies[last] = null;
+        body.index = -1;
+    }
+
+    /**
+     * Remembers the current position of every body as its position
+     * before the next step, so renderers can interpolate between them.
+     */
+    public void savePrevious() {
+        System.arraycopy(x, 0, px, 0, size);
+        System.arraycopy(y, 0, py, 0, size);
+    }
+
+    /**
+     * Integrates every body in this store by <code>dt</code> seconds with
+     * the store's {@link Integrator}, using {@link Physics#GRAVITY} plus each
+     * body's own acceleration, forces, impulses and damping. Bodies are
+     * clamped to the floor and left wall at <code>0</code>, like
+     * {@link me.tarunb.gamefx.entity.Entity#update(double)}, and slowed
+     * by {@link Physics#FRICTION} while they rest on the floor. While the
+     * store is {@link #schedule(double) scheduled}, each body is integrated
+     * by its own step time instead.
+     * @param dt The amount of elapsed time, in seconds.
+     */
+    public void integrate(double dt) {
+        integrate(dt, 0, size);
+    }
+
+    /**
+     * Integrates the bodies in slots <code>from</code> (inclusive) to
+     * <code>to</code> (exclusive). Disjoint ranges can be integrated
+     * concurrently from different threads.
+     * @param dt The amount of elapsed time, in seconds.
+     * @param from the first slot to integrate
+     * @param to the slot after the last one to integrate
+     */
+    public void integrate(double dt, int from, int to) {
+        settle(from, to);
+        switch (integrator) {
+            case VELOCITY_VERLET:
+                integrateVerlet(dt, from, to);
+                break;
+            case RK4:
+                integrateRK4(dt, from, to);
+                break;
+            default:
+                integrateEuler(dt, from, to);
+                break;
+        }
+        resolve(dt, from, to);
+    }
+
+    private void integrateEuler(double dt, int from, int to) {
+        final double gx = Physics.GRAVITY.getX();
+        final double gy = Physics.GRAVITY.getY();
+        final double[] x = this.x, y = this.y, vx = this.vx, vy = this.vy;
+        final double[] ax = this.ax, ay = this.ay, fx = this.fx, fy = this.fy, jx = this.jx, jy = this.jy;
+        final double[] invMass = this.invMass, damping = this.damping;
+        final int[] rest = this.rest;
+        final int sleepDelay = this.sleepDelay;
+        final double[] stepTime = scheduled ? this.stepTime : null;
+
+        for (int i = from; i < to; i++) {
+            double h = stepTime == null ? dt : stepTime[i];
+            if (h == 0 || rest[i] >= sleepDelay) {
+                continue;
+            }
+            double im = invMass[i], d = damping[i];
+            double v0x = vx[i] + jx[i] * im;
+            double v0y = vy[i] + jy[i] * im;
+            // v = v_0 + a * t
+            double nvx = v0x + (gx + ax[i] + fx[i] * im - d * v0x) * h;
+            double nvy = v0y + (gy + ay[i] + fy[i] * im - d * v0y) * h;
+            vx[i] = nvx;
+            vy[i] = nvy;
+            x[i] += nvx * h;
+            y[i] += nvy * h;
+        }
+    }
+
+    private void integrateVerlet(double dt, int from, int to) {
+        final double gx = Physics.GRAVITY.getX();
+        final double gy = Physics.GRAVITY.getY();
+        final double[] x = this.x, y = this.y, vx = this.vx, vy = this.vy;
+        final double[] ax = this.ax, ay = this.ay, fx = this.fx, fy = this.fy, jx = this.jx, jy = this.jy;
+        final double[] invMass = this.invMass, damping = this.damping;
+        final int[] rest = this.rest;
+        final int sleepDelay = this.sleepDelay;
+        final double[] stepTime = scheduled ? this.stepTime : null;
+
+        for (int i = from; i < to; i++) {
+            double h = stepTime == null ? dt : stepTime[i];
+            if (h == 0 || rest[i] >= sleepDelay) {
+                continue;
+            }
+            double halfH = h * 0.5;
+            double im = invMass[i], d = damping[i];
+            double v0x = vx[i] + jx[i] * im;
+            double v0y = vy[i] + jy[i] * im;
+            double cx = gx + ax[i] + fx[i] * im;
+            double cy = gy + ay[i] + fy[i] * im;
+            double a0x = cx - d * v0x;
+            double a0y = cy - d * v0y;
+            x[i] += (v0x + a0x * halfH) * h;
+            y[i] += (v0y + a0y * halfH) * h;
+            // acceleration at the end of the step, from the predicted velocity
+            double a1x = cx - d * (v0x + a0x * h);
+            double a1y = cy - d * (v0y + a0y * h);
+            vx[i] = v0x + (a0x + a1x) * halfH;
+            vy[i] = v0y + (a0y + a1y) * halfH;
+        }
+    }
+
+    private void integrateRK4(double dt, int from, int to) {
+        final double gx = Physics.GRAVITY.getX();
+        final double gy = Physics.GRAVITY.getY();
+        final double[] x = this.x, y = this.y, vx = this.vx, vy = this.vy;
+        final double[] ax = this.ax, ay = this.ay, fx = this.fx, fy = this.fy, jx = this.jx, jy = this.jy;
+        final double[] invMass = this.invMass, damping = this.damping;
+        final int[] rest = this.rest;
+        final int sleepDelay = this.sleepDelay;
+        final double[] stepTime = scheduled ? this.stepTime : null;
+        final double sixth = 1.0 / 6;
+
+        for (int i = from; i < to; i++) {
+            double h = stepTime == null ? dt : stepTime[i];
+            if (h == 0 || rest[i] >= sleepDelay) {
+                continue;
+            }
+            double halfH = h * 0.5, sixthH = h * sixth;
+            double im = invMass[i], d = damping[i];
+            double cx = gx + ax[i] + fx[i] * im;
+            double cy = gy + ay[i] + fy[i] * im;
+
+            // x' = v, v' = c - d * v
+            double v1x = vx[i] + jx[i] * im;
+            double v1y = vy[i] + jy[i] * im;
+            double k1x = cx - d * v1x, k1y = cy - d * v1y;
+            double v2x = v1x + k1x * halfH, v2y = v1y + k1y * halfH;
+            double k2x = cx - d * v2x, k2y = cy - d * v2y;
+            double v3x = v1x + k2x * halfH, v3y = v1y + k2y * halfH;
+            double k3x = cx - d * v3x, k3y = cy - d * v3y;
+            double v4x = v1x + k3x * h, v4y = v1y + k3y * h;
+            double k4x = cx - d * v4x, k4y = cy - d * v4y;
+
+            x[i] += (v1x + 2 * v2x + 2 * v3x + v4x) * sixthH;
+            y[i] += (v1y + 2 * v2y + 2 * v3y + v4y) * sixthH;
+            vx[i] = v1x + (k1x + 2 * k2x + 2 * k3x + k4x) * sixthH;
+            vy[i] = v1y + (k1y + 2 * k2y + 2 * k3y + k4y) * sixthH;
+        }
+    }
+
+    /**
+     * Counts how long each body has been resting, going by the velocity the
+     * last step left it with and anything that constrained it since, such
+     * as a tile map, and puts bodies that rested long enough to sleep.
+     */
+    private void settle(int from, int to) {
+        final double sleepSpeedSquared = this.sleepSpeedSquared;
+        if (sleepSpeedSquared < 0) {
+            return;
+        }
+        final double[] vx = this.vx, vy = this.vy;
+        final int[] rest = this.rest;
+        final int sleepDelay = this.sleepDelay;
+        final double[] stepTime = scheduled ? this.stepTime : null;
+
+        for (int i = from; i < to; i++) {
+            if (stepTime != null && stepTime[i] == 0 || rest[i] >= sleepDelay) {
+                continue;
+            }
+            if (vx[i] * vx[i] + vy[i] * vy[i] < sleepSpeedSquared) {
+                if (++rest[i] >= sleepDelay) {
+                    vx[i] = 0;
+                    vy[i] = 0;
+                }
+            } else {
+                rest[i] = 0;
+            }
+        }
+    }
+
+    /**
+     * Clamps bodies to the floor and left wall, applies ground friction,
+     * and clears the force and impulse accumulators. Skipped bodies only
+     * drop their forces, which are applied anew every step, and keep their
+     * impulses for the step that does integrate them.
+     */
+    private void resolve(double dt, int from, int to) {
+        final double[] x = this.x, y = this.y, vx = this.vx, vy = this.vy;
+        final double[] fx = this.fx, fy = this.fy, jx = this.jx, jy = this.jy;
+        final int[] rest = this.rest;
+        final int sleepDelay = this.sleepDelay;
+        final double[] stepTime = scheduled ? this.stepTime : null;
+        // Coulomb friction: the floor can take at most mu * g of horizontal speed per second
+        final double deceleration = Physics.FRICTION * Math.abs(Physics.GRAVITY.getY());
+
+        for (int i = from; i < to; i++) {
+            double h = stepTime == null ? dt : stepTime[i];
+            if (h == 0) {
+                fx[i] = 0;
+                fy[i] = 0;
+                continue;
+            }
+            if (rest[i] >= sleepDelay) {
+                continue;
+            }
+            fx[i] = 0;
+            fy[i] = 0;
+            jx[i] = 0;
+            jy[i] = 0;
+
+            if (x[i] < 0) {
+                x[i] = 0;
+                vx[i] = 0;
+            }
+            if (y[i] <= 0) {
+                if (y[i] < 0) {
+                    y[i] = 0;
+                    vy[i] = 0;
+                }
+                if (vy[i] <= 0) {
+                    vx[i] = applyFriction(vx[i], deceleration * h);
+                }
+            }
+        }
+    }
+
+    /**
+     * Slows a horizontal velocity by at most <code>friction</code>, without reversing it.
+     * @param vx the velocity, in metres per second
+     * @param friction the most speed friction can take away, in metres per second
+     * @return the slowed velocity
+     */
+    public static double applyFriction(double vx, double friction) {
+        if (vx > friction) {
+            return vx - friction;
+        } else if (vx < -friction) {
+            return vx + friction;
+        }
+        return 0;
+    }
+
+    public Integrator getIntegrator() {
+        return integrator;
+    }
+
+    /**
+     * Sets the method used to advance bodies. Defaults to
+     * {@link Integrator#SEMI_IMPLICIT_EULER}.
+     * @param integrator the new integrator
+     */
+    public void setIntegrator(Integrator integrator) {
+        if (integrator == null) {
+            throw new NullPointerException("integrator cannot be null");
+        }
+        this.integrator = integrator;
+    }
+
+    /**
+     * Makes bodies fall asleep once they have moved slower than
+     * <code>speed</code> for <code>delay</code> consecutive ticks. A sleeping
+     * body is stopped, and isn't integrated until it's woken.
+     * @param speed the speed below which a body is resting, in metres per
+     *              second, or <code>0</code> to never put bodies to sleep
+     * @param delay the number of resting ticks before a body falls asleep
+     */
+    public void setSleep(double speed, int delay) {
+        if (delay < 1) {
+            throw new IllegalArgumentException("delay must be at least 1");
+        }
+        if (speed <= 0) {
+            sleepSpeedSquared = -1;
+            sleepDelay = Integer.MAX_VALUE;
+            wakeAll();
+        } else {
+            sleepSpeedSquared = speed * speed;
+            sleepDelay = delay;
+        }
+    }
+
+    /**
+     * Returns whether the body in the specified slot is asleep.
+     * @param index the slot of the body
+     * @return true if the body is asleep
+     */
+    public boolean isSleeping(int index) {
+        return rest[index] >= sleepDelay;
+    }
+
+    /**
+     * Wakes the body in the specified slot, so it's integrated again.
+     * @param index the slot of the body
+     */
+    public void wake(int index) {
+        rest[index] = 0;
+    }
+
+    public void wakeAll() {
+        Arrays.fill(rest, 0, size, 0);
+    }
+
+    /**
+     * Integrates each body by its own step time, set with
+     * {@link Body#setStepTime(double)}, instead of the time passed to
+     * {@link #integrate(double)}, until {@link #unschedule()} is called.
+     * Every step time is reset to <code>dt</code>. A body with a step time
+     * of <code>0</code> is left alone: it isn't integrated, doesn't count
+     * towards falling asleep and isn't clamped to the floor.
+     * @param dt the step time to start every body with, in seconds
+     */
+    public void schedule(double dt) {
+        Arrays.fill(stepTime, 0, size, dt);
+        scheduled = true;
+    }
+
+    /**
+     * Goes back to integrating every body by the time passed to {@link #integrate(double)}.
+     */
+    public void unschedule() {
+        scheduled = false;
+    }
+
+    public boolean isScheduled() {
+        return scheduled;
+    }
+
+    /**
+     * Returns the number of bodies in this store.
+     * @return the number of allocated bodies.
+     */
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return bodies.length;
+    }
+
+    public Body getBody(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        return bodies[index];
+    }
+
+    private void grow() {
+        int capacity = bodies.length * 2;
+        x = Arrays.copyOf(x, capacity);
+        y = Arrays.copyOf(y, capacity);
+        px = Arrays.copyOf(px, capacity);
+        py = Arrays.copyOf(py, capacity);
+        vx = Arrays.copyOf(vx, capacity);
+        vy = Arrays.copyOf(vy, capacity);
+        ax = Arrays.copyOf(ax, capacity);
+        ay = Arrays.copyOf(ay, capacity);
+        fx = Arrays.copyOf(fx, capacity);
+        fy = Arrays.copyOf(fy, capacity);
+        jx = Arrays.copyOf(jx, capacity);
+        jy = Arrays.copyOf(jy, capacity);
+        invMass = Arrays.copyOf(invMass, capacity);
+        damping = Arrays.copyOf(damping, capacity);
+        rest = Arrays.copyOf(rest, capacity);
+        stepTime = Arrays.copyOf(stepTime, capacity);
+        bodies = Arrays.copyOf(bodies, capacity);
+    }
+
+}
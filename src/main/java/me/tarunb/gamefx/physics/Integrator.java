@@ -0,0 +1,59 @@
+/**
+ * GameFX
+ * <p>
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2016 Tarun Boddupalli
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package me.tarunb.gamefx.physics;
+
+/**
+ * The method a {@link BodyStore} uses to advance its bodies. Each body is
+ * accelerated by {@link Physics#GRAVITY}, its own acceleration, the forces
+ * applied to it divided by its mass, and a drag of <code>-damping * v</code>.
+ * <p>
+ * More accurate integrators cost more per body, but stay closer to the
+ * true motion at larger time steps. They only differ when the acceleration
+ * depends on the velocity, i.e. when bodies have damping.
+ */
+public enum Integrator {
+
+    /**
+     * Updates the velocity, then moves with the new velocity. Cheap and
+     * stable; the default, and what {@link me.tarunb.gamefx.entity.Entity}
+     * uses outside of a store.
+     */
+    SEMI_IMPLICIT_EULER,
+
+    /**
+     * Velocity Verlet: moves with the average of the start and end
+     * accelerations. Second order accurate.
+     */
+    VELOCITY_VERLET,
+
+    /**
+     * Classic fourth order Runge-Kutta. The most accurate, at about four
+     * times the cost of Euler.
+     */
+    RK4
+
+}
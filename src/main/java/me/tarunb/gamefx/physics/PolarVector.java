@@ -52,7 +52,17 @@ public class PolarVector {
     }
 
     public Vector toVector() {
-        return new Vector(length * Math.cos(Math.toRadians(angle)), length * Math.sin(Math.toRadians(angle)));
+        return toVectorInto(new Vector(0, 0));
+    }
+
+    /**
+     * Writes the cartesian form of this vector into <code>out</code>.
+     * @param out the vector to write into
+     * @return <code>out</code>
+     */
+    public Vector toVectorInto(Vector out) {
+        double radians = Math.toRadians(angle);
+        return out.set(length * Math.cos(radians), length * Math.sin(radians));
     }
 
 }
@@ -33,6 +33,13 @@ public class Position {
 
     private DoubleProperty x, y;
 
+    /**
+     * Constructor for subclasses that store their coordinates elsewhere,
+     * and override the accessors of this class.
+     */
+    protected Position() {
+    }
+
     public Position(double x, double y) {
         this.x = new SimpleDoubleProperty(x);
         this.y = new SimpleDoubleProperty(-y);
@@ -0,0 +1,350 @@
+/**
+ * GameFX
+ * <p>
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2016 Tarun Boddupalli
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package me.tarunb.gamefx.physics;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+/**
+ * A spatial hash of axis-aligned boxes, used as a broadphase for
+ * collision detection and for region, point and radius queries.
+ * <p>
+ * Space is divided into square cells of {@link #getCellSize()} metres, and
+ * every box is recorded in each cell it touches. Only the cells that are
+ * actually occupied take memory, so the world doesn't need to be bounded.
+ * The grid is meant to be {@link #clear() cleared} and refilled every tick;
+ * clearing is constant time and refilling doesn't allocate once the
+ * internal arrays have grown to fit.
+ *
+ * @param <T> the type of the items stored in the grid
+ */
+public class SpatialGrid<T> {
+
+    private static final int EMPTY = -1;
+
+    private final double cellSize;
+    private final double inverseCellSize;
+
+    // items, and their boxes
+    private Object[] items = new Object[64];
+    private double[] minX = new double[64], minY = new double[64];
+    private double[] maxX = new double[64], maxY = new double[64];
+    private int[] visited = new int[64];
+    private int visitStamp = 0;
+    private int count = 0;
+
+    // open addressing table of occupied cells; a slot is live if its stamp is the current generation
+    private long[] cellKeys = new long[256];
+    private int[] cellHeads = new int[256];
+    private int[] cellStamps = new int[256];
+    private int[] usedCells = new int[128];
+    private int cellCount = 0;
+    private int generation = 1;
+
+    // singly linked list of items per cell
+    private int[] entryItems = new int[256];
+    private int[] entryNext = new int[256];
+    private int entryCount = 0;
+
+    /**
+     * Constructs a grid with the specified cell size.
+     * Cells a bit larger than a typical item work best.
+     * @param cellSize the width and height of a cell, in metres.
+     */
+    public SpatialGrid(double cellSize) {
+        if (cellSize <= 0) {
+            throw new IllegalArgumentException("cellSize must be positive");
+        }
+        this.cellSize = cellSize;
+        this.inverseCellSize = 1 / cellSize;
+    }
+
+    public double getCellSize() {
+        return cellSize;
+    }
+
+    /**
+     * Returns the number of items in the grid.
+     * @return the number of items.
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Removes every item from the grid.
+     */
+    public void clear() {
+        Arrays.fill(items, 0, count, null);
+        count = 0;
+        entryCount = 0;
+        cellCount = 0;
+        if (++generation == Integer.MAX_VALUE) {
+            Arrays.fill(cellStamps, 0);
+            generation = 1;
+        }
+    }
+
+    public void insert(T item, AABB bounds) {
+        insert(item, bounds.getMinX(), bounds.getMinY(), bounds.getMaxX(), bounds.getMaxY());
+    }
+
+    /**
+     * Adds an item with the specified box to the grid.
+     * @param item the item
+     * @param minX the left edge of the box
+     * @param minY the bottom edge of the box
+     * @param maxX the right edge of the box
+     * @param maxY the top edge of the box
+     */
+    public void insert(T item, double minX, double minY, double maxX, double maxY) {
+        if (count == items.length) {
+            int capacity = count * 2;
+            items = Arrays.copyOf(items, capacity);
+            this.minX = Arrays.copyOf(this.minX, capacity);
+            this.minY = Arrays.copyOf(this.minY, capacity);
+            this.maxX = Arrays.copyOf(this.maxX, capacity);
+            this.maxY = Arrays.copyOf(this.maxY, capacity);
+            visited = Arrays.copyOf(visited, capacity);
+        }
+        int id = count++;
+        items[id] = item;
+        this.minX[id] = minX;
+        this.minY[id] = minY;
+        this.maxX[id] = maxX;
+        this.maxY[id] = maxY;
+        visited[id] = 0;
+
+        int cx0 = cell(minX), cx1 = cell(maxX);
+        int cy0 = cell(minY), cy1 = cell(maxY);
+        for (int cx = cx0; cx <= cx1; cx++) {
+            for (int cy = cy0; cy <= cy1; cy++) {
+                int slot = findOrCreateCell(key(cx, cy));
+                if (entryCount == entryItems.length) {
+                    entryItems = Arrays.copyOf(entryItems, entryCount * 2);
+                    entryNext = Arrays.copyOf(entryNext, entryCount * 2);
+                }
+                int entry = entryCount++;
+                entryItems[entry] = id;
+                entryNext[entry] = cellHeads[slot];
+                cellHeads[slot] = entry;
+            }
+        }
+    }
+
+    public void query(AABB bounds, List<? super T> out) {
+        query(bounds.getMinX(), bounds.getMinY(), bounds.getMaxX(), bounds.getMaxY(), out);
+    }
+
+    /**
+     * Adds every item whose box overlaps the specified box to <code>out</code>.
+     * @param minX the left edge of the box
+     * @param minY the bottom edge of the box
+     * @param maxX the right edge of the box
+     * @param maxY the top edge of the box
+     * @param out the list to add the items to
+     */
+    @SuppressWarnings("unchecked")
+    public void query(double minX, double minY, double maxX, double maxY, List<? super T> out) {
+        int stamp = nextVisitStamp();
+        int cx0 = cell(minX), cx1 = cell(maxX);
+        int cy0 = cell(minY), cy1 = cell(maxY);
+        for (int cx = cx0; cx <= cx1; cx++) {
+            for (int cy = cy0; cy <= cy1; cy++) {
+                int slot = findCell(key(cx, cy));
+                if (slot == EMPTY) {
+                    continue;
+                }
+                for (int e = cellHeads[slot]; e != EMPTY; e = entryNext[e]) {
+                    int id = entryItems[e];
+                    if (visited[id] != stamp) {
+                        visited[id] = stamp;
+                        if (AABB.overlaps(minX, minY, maxX, maxY, this.minX[id], this.minY[id], this.maxX[id], this.maxY[id])) {
+                            out.add((T) items[id]);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds every item whose box contains the specified point to <code>out</code>.
+     * @param x the x coordinate of the point
+     * @param y the y coordinate of the point
+     * @param out the list to add the items to
+     */
+    @SuppressWarnings("unchecked")
+    public void queryPoint(double x, double y, List<? super T> out) {
+        int slot = findCell(key(cell(x), cell(y)));
+        if (slot == EMPTY) {
+            return;
+        }
+        for (int e = cellHeads[slot]; e != EMPTY; e = entryNext[e]) {
+            int id = entryItems[e];
+            if (x >= minX[id] && x <= maxX[id] && y >= minY[id] && y <= maxY[id]) {
+                out.add((T) items[id]);
+            }
+        }
+    }
+
+    /**
+     * Adds every item whose box intersects the specified circle to <code>out</code>.
+     * @param x the x coordinate of the center of the circle
+     * @param y the y coordinate of the center of the circle
+     * @param radius the radius of the circle
+     * @param out the list to add the items to
+     */
+    @SuppressWarnings("unchecked")
+    public void queryRadius(double x, double y, double radius, List<? super T> out) {
+        int stamp = nextVisitStamp();
+        int cx0 = cell(x - radius), cx1 = cell(x + radius);
+        int cy0 = cell(y - radius), cy1 = cell(y + radius);
+        for (int cx = cx0; cx <= cx1; cx++) {
+            for (int cy = cy0; cy <= cy1; cy++) {
+                int slot = findCell(key(cx, cy));
+                if (slot == EMPTY) {
+                    continue;
+                }
+                for (int e = cellHeads[slot]; e != EMPTY; e = entryNext[e]) {
+                    int id = entryItems[e];
+                    if (visited[id] != stamp) {
+                        visited[id] = stamp;
+                        if (AABB.intersectsCircle(minX[id], minY[id], maxX[id], maxY[id], x, y, radius)) {
+                            out.add((T) items[id]);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Calls <code>visitor</code> once for every pair of items whose boxes overlap.
+     * @param visitor the callback for each overlapping pair
+     */
+    @SuppressWarnings("unchecked")
+    public void findPairs(BiConsumer<? super T, ? super T> visitor) {
+        for (int c = 0; c < cellCount; c++) {
+            int slot = usedCells[c];
+            long key = cellKeys[slot];
+            int cx = (int) (key >> 32);
+            int cy = (int) key;
+
+            for (int a = cellHeads[slot]; a != EMPTY; a = entryNext[a]) {
+                int i = entryItems[a];
+                for (int b = entryNext[a]; b != EMPTY; b = entryNext[b]) {
+                    int j = entryItems[b];
+                    if (!AABB.overlaps(minX[i], minY[i], maxX[i], maxY[i], minX[j], minY[j], maxX[j], maxY[j])) {
+                        continue;
+                    }
+                    // a pair can share several cells; only report it from the
+                    // cell that holds the bottom-left corner of the overlap
+                    if (cell(Math.max(minX[i], minX[j])) == cx && cell(Math.max(minY[i], minY[j])) == cy) {
+                        visitor.accept((T) items[i], (T) items[j]);
+                    }
+                }
+            }
+        }
+    }
+
+    private int nextVisitStamp() {
+        if (++visitStamp == Integer.MAX_VALUE) {
+            Arrays.fill(visited, 0);
+            visitStamp = 1;
+        }
+        return visitStamp;
+    }
+
+    private int cell(double coordinate) {
+        return (int) Math.floor(coordinate * inverseCellSize);
+    }
+
+    private static long key(int cx, int cy) {
+        return ((long) cx << 32) | (cy & 0xffffffffL);
+    }
+
+    private static int hash(long key, int mask) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    private int findCell(long key) {
+        int mask = cellKeys.length - 1;
+        for (int slot = hash(key, mask); cellStamps[slot] == generation; slot = (slot + 1) & mask) {
+            if (cellKeys[slot] == key) {
+                return slot;
+            }
+        }
+        return EMPTY;
+    }
+
+    private int findOrCreateCell(long key) {
+        if ((cellCount + 1) * 2 > cellKeys.length) {
+            rehash();
+        }
+        int mask = cellKeys.length - 1;
+        int slot = hash(key, mask);
+        for (; cellStamps[slot] == generation; slot = (slot + 1) & mask) {
+            if (cellKeys[slot] == key) {
+                return slot;
+            }
+        }
+        cellStamps[slot] = generation;
+        cellKeys[slot] = key;
+        cellHeads[slot] = EMPTY;
+        if (cellCount == usedCells.length) {
+            usedCells = Arrays.copyOf(usedCells, cellCount * 2);
+        }
+        usedCells[cellCount++] = slot;
+        return slot;
+    }
+
+    private void rehash() {
+        long[] oldKeys = cellKeys;
+        int[] oldHeads = cellHeads;
+        int capacity = oldKeys.length * 2;
+        cellKeys = new long[capacity];
+        cellHeads = new int[capacity];
+        cellStamps = new int[capacity];
+        int mask = capacity - 1;
+
+        for (int c = 0; c < cellCount; c++) {
+            int old = usedCells[c];
+            int slot = hash(oldKeys[old], mask);
+            while (cellStamps[slot] == generation) {
+                slot = (slot + 1) & mask;
+            }
+            cellStamps[slot] = generation;
+            cellKeys[slot] = oldKeys[old];
+            cellHeads[slot] = oldHeads[old];
+            usedCells[c] = slot;
+        }
+    }
+
+}
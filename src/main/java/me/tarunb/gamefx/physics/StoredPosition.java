@@ -0,0 +1,96 @@
+/**
+ * GameFX
+ * <p>
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2016 Tarun Boddupalli
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package me.tarunb.gamefx.physics;
+
+import javafx.beans.property.DoubleProperty;
+import javafx.beans.property.SimpleDoubleProperty;
+
+/**
+ * A position that reads and writes its coordinates in a {@link BodyStore}.
+ * The properties of this position are not live; they hold the value
+ * of the coordinates at the time they were last requested.
+ * Writing a coordinate wakes the body.
+ */
+class StoredPosition extends Position {
+
+    private final Body body;
+
+    private DoubleProperty xProperty, yProperty;
+
+    StoredPosition(Body body) {
+        this.body = body;
+    }
+
+    @Override
+    public double getX() {
+        return body.store.x[body.index];
+    }
+
+    @Override
+    public void setX(double x) {
+        body.store.x[body.index] = x;
+        body.store.rest[body.index] = 0;
+    }
+
+    @Override
+    public double getY() {
+        return body.store.y[body.index];
+    }
+
+    @Override
+    public void setY(double y) {
+        body.store.y[body.index] = y;
+        body.store.rest[body.index] = 0;
+    }
+
+    @Override
+    public DoubleProperty xProperty() {
+        if (xProperty == null) {
+            xProperty = new SimpleDoubleProperty();
+        }
+        xProperty.set(getX());
+        return xProperty;
+    }
+
+    @Override
+    public DoubleProperty yProperty() {
+        if (yProperty == null) {
+            yProperty = new SimpleDoubleProperty();
+        }
+        yProperty.set(-getY());
+        return yProperty;
+    }
+
+    @Override
+    public String toString() {
+        return "StoredPosition{" +
+                "x=" + getX() +
+                ", y=" + getY() +
+                '}';
+    }
+
+}
@@ -0,0 +1,77 @@
+/**
+ * GameFX
+ * <p>
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2016 Tarun Boddupalli
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package me.tarunb.gamefx.physics;
+
+/**
+ * A vector that reads and writes its components in a {@link BodyStore},
+ * either as the velocity or the acceleration of a body.
+ * Writing a component wakes the body.
+ */
+class StoredVector extends Vector {
+
+    private final Body body;
+    private final boolean acceleration;
+
+    StoredVector(Body body, boolean acceleration) {
+        super(0, 0);
+        this.body = body;
+        this.acceleration = acceleration;
+    }
+
+    @Override
+    public double getX() {
+        return acceleration ? body.store.ax[body.index] : body.store.vx[body.index];
+    }
+
+    @Override
+    public double getY() {
+        return acceleration ? body.store.ay[body.index] : body.store.vy[body.index];
+    }
+
+    @Override
+    public Vector setX(double x) {
+        if (acceleration) {
+            body.store.ax[body.index] = x;
+        } else {
+            body.store.vx[body.index] = x;
+        }
+        body.store.rest[body.index] = 0;
+        return this;
+    }
+
+    @Override
+    public Vector setY(double y) {
+        if (acceleration) {
+            body.store.ay[body.index] = y;
+        } else {
+            body.store.vy[body.index] = y;
+        }
+        body.store.rest[body.index] = 0;
+        return this;
+    }
+
+}
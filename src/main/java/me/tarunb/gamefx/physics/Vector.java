@@ -26,10 +26,24 @@
 
 package me.tarunb.gamefx.physics;
 
+/**
+ * A two dimensional vector.
+ * <p>
+ * Methods that return a <code>Vector</code> either mutate this vector and
+ * return it (<code>add</code>, <code>multiply</code>, <code>set</code>...),
+ * or allocate a new one (<code>copy</code>, <code>normalize</code>,
+ * <code>toPolarVector</code>...). Every allocating conversion also has an
+ * <code>*Into(out)</code> variant that writes into an object supplied by the
+ * caller, and the static helpers work on primitive doubles, so code that
+ * runs every frame doesn't have to allocate.
+ * <p>
+ * Vectors created with {@link #immutable(double, double)}, such as
+ * {@link #ZERO} and {@link #IDENTITY}, throw on every mutation.
+ */
 public class Vector {
 
-    public static final Vector ZERO = new Vector(0, 0);
-    public static final Vector IDENTITY = new Vector(1, 1);
+    public static final Vector ZERO = immutable(0, 0);
+    public static final Vector IDENTITY = immutable(1, 1);
 
     private double x = 0, y = 0;
 
@@ -38,6 +52,24 @@ public class Vector {
         this.y = y;
     }
 
+    /**
+     * Returns a vector with the specified components that can't be changed.
+     * @param x the x component
+     * @param y the y component
+     * @return an immutable vector
+     */
+    public static Vector immutable(double x, double y) {
+        return new ImmutableVector(x, y);
+    }
+
+    /**
+     * Returns whether this vector can be changed.
+     * @return true if every mutation of this vector throws.
+     */
+    public boolean isImmutable() {
+        return false;
+    }
+
     public double getX() {
         return x;
     }
@@ -56,8 +88,24 @@ public class Vector {
         return this;
     }
 
+    public Vector set(double x, double y) {
+        return setX(x).setY(y);
+    }
+
+    public Vector set(Vector other) {
+        return set(other.getX(), other.getY());
+    }
+
+    /**
+     * Returns a new, mutable vector with the same components as this one.
+     * @return a copy of this vector
+     */
+    public Vector copy() {
+        return new Vector(getX(), getY());
+    }
+
     public Vector multiply(Vector other) {
-        return multiply(other.x, other.y);
+        return multiply(other.getX(), other.getY());
     }
 
     public Vector multiply(double factor) {
@@ -65,42 +113,119 @@ public class Vector {
     }
 
     public Vector multiply(double xFactor, double yFactor) {
-        x *= xFactor;
-        y *= yFactor;
-        return this;
+        return setX(getX() * xFactor).setY(getY() * yFactor);
     }
 
     public Vector add(Vector other) {
-        return add(other.x, other.y);
+        return add(other.getX(), other.getY());
     }
 
     public Vector add(double x, double y) {
-        this.x += x;
-        this.y += y;
-        return this;
+        return setX(getX() + x).setY(getY() + y);
+    }
+
+    public Vector subtract(Vector other) {
+        return add(-other.getX(), -other.getY());
+    }
+
+    public double dot(Vector other) {
+        return dot(getX(), getY(), other.getX(), other.getY());
     }
 
     public double magnitude() {
-        return Math.sqrt(x*x + y*y);
+        return magnitude(getX(), getY());
     }
 
+    public double magnitudeSquared() {
+        double x = getX(), y = getY();
+        return x*x + y*y;
+    }
+
+    /**
+     * Returns a new vector with the same direction as this one and a
+     * magnitude of <code>1</code>, or a zero vector if this vector is zero.
+     * @return the normalized vector
+     */
     public Vector normalize() {
-        return new Vector(x / magnitude(), y / magnitude());
+        return normalizeInto(new Vector(0, 0));
+    }
+
+    /**
+     * Writes the normalized form of this vector into <code>out</code>.
+     * <code>out</code> may be this vector.
+     * @param out the vector to write into
+     * @return <code>out</code>
+     */
+    public Vector normalizeInto(Vector out) {
+        double x = getX(), y = getY();
+        double magnitude = magnitude(x, y);
+        if (magnitude == 0) {
+            return out.set(0, 0);
+        }
+        return out.set(x / magnitude, y / magnitude);
     }
 
     public PolarVector toPolarVector() {
-        return new PolarVector(magnitude(), Math.toDegrees(Math.atan2(y, x)));
+        return toPolarVectorInto(new PolarVector(0, 0));
+    }
+
+    public PolarVector toPolarVectorInto(PolarVector out) {
+        double x = getX(), y = getY();
+        out.setLength(magnitude(x, y));
+        out.setAngle(Math.toDegrees(Math.atan2(y, x)));
+        return out;
     }
 
     public Position toPosition() {
-        return new Position(x, y);
+        return new Position(getX(), getY());
+    }
+
+    public Position toPositionInto(Position out) {
+        out.setX(getX());
+        out.setY(getY());
+        return out;
+    }
+
+    public static double magnitude(double x, double y) {
+        return Math.sqrt(x*x + y*y);
+    }
+
+    public static double dot(double x1, double y1, double x2, double y2) {
+        return x1*x2 + y1*y2;
+    }
+
+    public static double distance(double x1, double y1, double x2, double y2) {
+        return magnitude(x2 - x1, y2 - y1);
     }
 
     @Override
     public String toString() {
         return "Vector{" +
-                "x=" + x +
-                ", y=" + y +
+                "x=" + getX() +
+                ", y=" + getY() +
                 '}';
     }
+
+    private static final class ImmutableVector extends Vector {
+
+        ImmutableVector(double x, double y) {
+            super(x, y);
+        }
+
+        @Override
+        public boolean isImmutable() {
+            return true;
+        }
+
+        @Override
+        public Vector setX(double x) {
+            throw new UnsupportedOperationException("This vector is immutable");
+        }
+
+        @Override
+        public Vector setY(double y) {
+            throw new UnsupportedOperationException("This vector is immutable");
+        }
+
+    }
 }
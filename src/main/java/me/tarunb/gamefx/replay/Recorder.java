@@ -0,0 +1,210 @@
+/**
+ * GameFX
+ * <p>
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2016 Tarun Boddupalli
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package me.tarunb.gamefx.replay;
+
+import me.tarunb.gamefx.entity.Entity;
+import me.tarunb.gamefx.entity.TickListener;
+import me.tarunb.gamefx.entity.World;
+import me.tarunb.gamefx.input.InputQueue;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Records the ticks of a {@link World} to a binary file, so they can be
+ * played back later with a {@link Replayer}.
+ * <p>
+ * Every tick is stored as its timestep and the input events that were
+ * delivered in it. Every <code>keyframeInterval</code> ticks, the
+ * positions and velocities of all entities are stored as well, which
+ * lets a replay check that it hasn't diverged from the recording.
+ * <pre>
+ * Recorder recorder = new Recorder(view.getWorld(), Paths.get("session.gfxr"));
+ * ...
+ * recorder.close();
+ * </pre>
+ * <p>
+ * A replay only reproduces the recording if the world is set up the same
+ * way, with the same entities added in the same order, and if the
+ * simulation doesn't depend on anything but its input and timestep.
+ */
+public class Recorder implements TickListener, Closeable {
+
+    static final int MAGIC = 0x47465852; // GFXR
+    static final short VERSION = 1;
+
+    static final byte TICK = 1;
+    static final byte KEYFRAME = 2;
+
+    static final int KEYFRAME_ENTITY_BYTES = 4 * Double.BYTES;
+
+    public static final int DEFAULT_KEYFRAME_INTERVAL = 60;
+
+    private static final int FLUSH_THRESHOLD = 1 << 15;
+
+    private final World world;
+    private final FileChannel channel;
+    private final int keyframeInterval;
+    private final InputQueue tap = new InputQueue();
+    private ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 16);
+
+    private long ticks = 0;
+    private boolean closed = false;
+
+    public Recorder(World world, Path file) throws IOException {
+        this(world, file, DEFAULT_KEYFRAME_INTERVAL);
+    }
+
+    /**
+     * Starts recording the ticks of a world to a file. The file is
+     * overwritten if it already exists.
+     * @param world the world to record
+     * @param file the file to write to
+     * @param keyframeInterval the number of ticks between keyframes
+     * @throws IOException if the file can't be opened
+     */
+    public Recorder(World world, Path file, int keyframeInterval) throws IOException {
+        if (keyframeInterval < 1) {
+            throw new IllegalArgumentException("keyframeInterval must be positive");
+        }
+        this.world = world;
+        this.keyframeInterval = keyframeInterval;
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        buffer.putInt(MAGIC).putShort(VERSION);
+        world.getInputDispatcher().setTap(tap);
+        world.addTickListener(this);
+    }
+
+    /**
+     * Returns the number of ticks that have been recorded.
+     * @return the number of recorded ticks
+     */
+    public long getTicks() {
+        return ticks;
+    }
+
+    @Override
+    public void beforeTick(World world, double dt) {
+        if (ticks % keyframeInterval == 0) {
+            writeKeyframe();
+        }
+    }
+
+    @Override
+    public void afterTick(World world, double dt) {
+        reserve(Byte.BYTES + Integer.BYTES + Double.BYTES + Short.BYTES + tap.size() * 21);
+        buffer.put(TICK);
+        int lengthAt = buffer.position();
+        buffer.putInt(0);
+        buffer.putDouble(dt);
+        tap.transferTo(buffer);
+        buffer.putInt(lengthAt, buffer.position() - lengthAt - Integer.BYTES);
+        ticks++;
+        if (buffer.position() >= FLUSH_THRESHOLD) {
+            flush();
+        }
+    }
+
+    private void writeKeyframe() {
+        int count = world.getEntities().size();
+        reserve(Byte.BYTES + Integer.BYTES + Long.BYTES + Integer.BYTES + count * KEYFRAME_ENTITY_BYTES);
+        buffer.put(KEYFRAME);
+        int lengthAt = buffer.position();
+        buffer.putInt(0);
+        buffer.putLong(ticks);
+        int countAt = buffer.position();
+        buffer.putInt(0);
+        int written = 0;
+        for (Entity entity : world.getEntities()) {
+            // entities added since the size was read are left out of this keyframe
+            if (written == count) {
+                break;
+            }
+            buffer.putDouble(entity.getPosition().getX()).putDouble(entity.getPosition().getY());
+            buffer.putDouble(entity.getVelocity().getX()).putDouble(entity.getVelocity().getY());
+            written++;
+        }
+        buffer.putInt(countAt, written);
+        buffer.putInt(lengthAt, buffer.position() - lengthAt - Integer.BYTES);
+    }
+
+    /**
+     * Makes sure <code>bytes</code> more bytes fit in the buffer.
+     */
+    private void reserve(int bytes) {
+        if (buffer.remaining() >= bytes) {
+            return;
+        }
+        flush();
+        if (buffer.capacity() < bytes) {
+            buffer = ByteBuffer.allocateDirect(Integer.highestOneBit(bytes) << 1);
+        }
+    }
+
+    private void flush() {
+        buffer.flip();
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Stops recording, and writes the remaining ticks to the file.
+     * Must be called from the thread that steps the world.
+     * @throws IOException if the file can't be written
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        world.removeTickListener(this);
+        if (world.getInputDispatcher().getTap() == tap) {
+            world.getInputDispatcher().setTap(null);
+        }
+        try {
+            flush();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            channel.close();
+        }
+    }
+
+}
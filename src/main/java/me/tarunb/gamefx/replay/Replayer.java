@@ -0,0 +1,230 @@
+/**
+ * GameFX
+ * <p>
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2016 Tarun Boddupalli
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package me.tarunb.gamefx.replay;
+
+import me.tarunb.gamefx.entity.Entity;
+import me.tarunb.gamefx.entity.World;
+import me.tarunb.gamefx.physics.Position;
+import me.tarunb.gamefx.physics.Vector;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Plays back a file written by a {@link Recorder}, by posting the recorded
+ * input events to a world and stepping it with the recorded timesteps,
+ * as fast as possible.
+ * <p>
+ * The world should be set up the same way as the recorded one, but it
+ * shouldn't be shown in a view that also feeds it live input. At every
+ * keyframe the entities are compared to the recording, see
+ * {@link #getMaxError()}, or, if {@link #setRestoreKeyframes(boolean)} is
+ * set, moved back to the recorded state.
+ * <p>
+ * Since a replay runs the same update pipeline without rendering or
+ * pacing, it also works as a reproducible performance workload.
+ */
+public class Replayer implements Runnable, Closeable {
+
+    private final World world;
+    private final FileChannel channel;
+    private ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 16);
+
+    private boolean restoreKeyframes = false;
+    private double maxError = 0;
+    private long ticks = 0;
+    private long keyframes = 0;
+    private long elapsedNanos = 0;
+
+    /**
+     * Opens a recording to be played back on a world.
+     * @param world the world to step
+     * @param file the recording
+     * @throws IOException if the file can't be read, or isn't a recording
+     */
+    public Replayer(World world, Path file) throws IOException {
+        this.world = world;
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        buffer.flip();
+        if (!fill(Integer.BYTES + Short.BYTES) || buffer.getInt() != Recorder.MAGIC) {
+            channel.close();
+            throw new IOException("Not a recording: " + file);
+        }
+        short version = buffer.getShort();
+        if (version != Recorder.VERSION) {
+            channel.close();
+            throw new IOException("Unsupported recording version " + version + ": " + file);
+        }
+    }
+
+    public boolean isRestoreKeyframes() {
+        return restoreKeyframes;
+    }
+
+    /**
+     * Sets whether entities are moved back to the recorded state at every
+     * keyframe, instead of being compared to it. Defaults to false.
+     * @param restoreKeyframes true to restore keyframes
+     */
+    public void setRestoreKeyframes(boolean restoreKeyframes) {
+        this.restoreKeyframes = restoreKeyframes;
+    }
+
+    /**
+     * Returns the largest difference between a recorded and a replayed
+     * position or velocity component, over all compared keyframes.
+     * A deterministic replay has an error of <code>0</code>.
+     * @return the largest error seen so far
+     */
+    public double getMaxError() {
+        return maxError;
+    }
+
+    public long getTicks() {
+        return ticks;
+    }
+
+    public long getKeyframes() {
+        return keyframes;
+    }
+
+    /**
+     * Returns the time spent replaying in {@link #run()}, in nanoseconds.
+     * @return the time spent replaying
+     */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * Plays back the next tick of the recording.
+     * @return false if the end of the recording was reached
+     * @throws IOException if the recording can't be read
+     */
+    public boolean step() throws IOException {
+        while (fill(Byte.BYTES + Integer.BYTES)) {
+            byte type = buffer.get();
+            int length = buffer.getInt();
+            if (!fill(length)) {
+                throw new EOFException("Recording ends in the middle of a record");
+            }
+            int end = buffer.position() + length;
+            if (type == Recorder.KEYFRAME) {
+                readKeyframe();
+            } else if (type == Recorder.TICK) {
+                double dt = buffer.getDouble();
+                world.getInputDispatcher().getQueue().readFrom(buffer);
+                world.update(dt);
+                ticks++;
+                buffer.position(end);
+                return true;
+            }
+            buffer.position(end);
+        }
+        return false;
+    }
+
+    /**
+     * Plays back the rest of the recording.
+     * @throws UncheckedIOException if the recording can't be read
+     */
+    @Override
+    public void run() {
+        long start = System.nanoTime();
+        try {
+            while (step()) {
+                // keep going
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            elapsedNanos += System.nanoTime() - start;
+        }
+    }
+
+    private void readKeyframe() {
+        buffer.getLong(); // tick
+        int count = buffer.getInt();
+        if (count != world.getEntities().size()) {
+            throw new IllegalStateException("Keyframe has " + count + " entities, but the world has "
+                    + world.getEntities().size());
+        }
+        for (Entity entity : world.getEntities()) {
+            double x = buffer.getDouble(), y = buffer.getDouble();
+            double vx = buffer.getDouble(), vy = buffer.getDouble();
+            if (restoreKeyframes) {
+                entity.setPosition(new Position(x, y));
+                entity.setVelocity(new Vector(vx, vy));
+            } else {
+                Position position = entity.getPosition();
+                Vector velocity = entity.getVelocity();
+                maxError = Math.max(maxError, Math.abs(position.getX() - x));
+                maxError = Math.max(maxError, Math.abs(position.getY() - y));
+                maxError = Math.max(maxError, Math.abs(velocity.getX() - vx));
+                maxError = Math.max(maxError, Math.abs(velocity.getY() - vy));
+            }
+        }
+        keyframes++;
+    }
+
+    /**
+     * Reads from the file until at least <code>bytes</code> bytes are buffered.
+     * @return false if the file ended first
+     */
+    private boolean fill(int bytes) throws IOException {
+        if (buffer.remaining() >= bytes) {
+            return true;
+        }
+        if (buffer.capacity() < bytes) {
+            ByteBuffer larger = ByteBuffer.allocateDirect(Integer.highestOneBit(bytes) << 1);
+            larger.put(buffer);
+            buffer = larger;
+        } else {
+            buffer.compact();
+        }
+        while (buffer.position() < bytes) {
+            if (channel.read(buffer) < 0) {
+                buffer.flip();
+                return false;
+            }
+        }
+        buffer.flip();
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+}
@@ -0,0 +1,443 @@
+/**
+ * GameFX
+ * <p>
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2016 Tarun Boddupalli
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package me.tarunb.gamefx.tiles;
+
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.PixelReader;
+import javafx.scene.image.PixelWriter;
+import javafx.scene.image.WritableImage;
+import me.tarunb.gamefx.physics.Physics;
+
+/**
+ * A grid of static tiles, such as the ground and walls of a level. Tile
+ * <code>(0, 0)</code> sits on the origin of the world, and rows go up.
+ * <p>
+ * Tile ids are kept in <code>short[]</code> chunks of
+ * {@link #CHUNK_SIZE} by {@link #CHUNK_SIZE} tiles, which are only
+ * allocated once something is put in them. Each chunk is drawn once into
+ * a cached image, and only redrawn when one of its tiles changes, so
+ * drawing the map is one <code>drawImage</code> per visible chunk.
+ * <p>
+ * Entities in a {@link me.tarunb.gamefx.entity.World} with a tile map
+ * collide with its solid tiles, using {@link #isSolid(int, int)}.
+ */
+public class TileMap {
+
+    /**
+     * The width and height of a chunk, in tiles.
+     */
+    public static final int CHUNK_SIZE = 16;
+    private static final int CHUNK_SHIFT = 4;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    /**
+     * Returned by {@link #collide} when the box landed on a solid tile.
+     */
+    public static final int LANDED = 1;
+    /**
+     * Returned by {@link #collide} when the box hit a solid tile above it.
+     */
+    public static final int HIT_CEILING = 2;
+    /**
+     * Returned by {@link #collide} when the box hit a solid tile beside it.
+     */
+    public static final int HIT_WALL = 4;
+
+    // keeps boxes that touch a tile edge from counting as inside the tile
+    private static final double EPSILON = 1e-9;
+
+    private final int width, height;
+    private final double tileSize;
+    private final TileSet tileSet;
+    private final boolean[] solid;
+
+    private final int chunksX, chunksY;
+    private final Chunk[] chunks;
+
+    private int version = 0;
+
+    /**
+     * Constructs an empty tile map.
+     * @param width the width of the map, in tiles
+     * @param height the height of the map, in tiles
+     * @param tileSize the width and height of one tile, in metres
+     * @param tileSet the tiles to draw
+     */
+    public TileMap(int width, int height, double tileSize, TileSet tileSet) {
+        if (width < 1 || height < 1) {
+            throw new IllegalArgumentException("A tile map must be at least 1 by 1 tiles");
+        }
+        if (!(tileSize > 0)) {
+            throw new IllegalArgumentException("tileSize must be positive");
+        }
+        this.width = width;
+        this.height = height;
+        this.tileSize = tileSize;
+        this.tileSet = tileSet;
+        this.solid = tileSet.solid;
+        this.chunksX = (width + CHUNK_MASK) >> CHUNK_SHIFT;
+        this.chunksY = (height + CHUNK_MASK) >> CHUNK_SHIFT;
+        this.chunks = new Chunk[chunksX * chunksY];
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Returns the width and height of one tile.
+     * @return the tile size, in metres
+     */
+    public double getTileSize() {
+        return tileSize;
+    }
+
+    public TileSet getTileSet() {
+        return tileSet;
+    }
+
+    /**
+     * Returns a number that changes every time a tile changes.
+     * @return the version of this map
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * Returns the id of a tile.
+     * @param tx the column of the tile
+     * @param ty the row of the tile, counting up from the bottom
+     * @return the id of the tile, or <code>0</code> if it is empty or outside the map
+     */
+    public int getTile(int tx, int ty) {
+        if (tx < 0 || ty < 0 || tx >= width || ty >= height) {
+            return 0;
+        }
+        Chunk chunk = chunks[(ty >> CHUNK_SHIFT) * chunksX + (tx >> CHUNK_SHIFT)];
+        return chunk == null ? 0 : chunk.ids[((ty & CHUNK_MASK) << CHUNK_SHIFT) | (tx & CHUNK_MASK)];
+    }
+
+    /**
+     * Sets the id of a tile.
+     * @param tx the column of the tile
+     * @param ty the row of the tile, counting up from the bottom
+     * @param id the id of the tile in the tile set, or <code>0</code> to clear it
+     */
+    public void setTile(int tx, int ty, int id) {
+        if (tx < 0 || ty < 0 || tx >= width || ty >= height) {
+            throw new IndexOutOfBoundsException("Tile (" + tx + ", " + ty + ") is outside the map");
+        }
+        if (id < 0 || id > tileSet.getCount()) {
+            throw new IllegalArgumentException("Tile " + id + " isn't in the tile set");
+        }
+        int c = (ty >> CHUNK_SHIFT) * chunksX + (tx >> CHUNK_SHIFT);
+        Chunk chunk = chunks[c];
+        if (chunk == null) {
+            if (id == 0) {
+                return;
+            }
+            chunk = chunks[c] = new Chunk();
+        }
+        int i = ((ty & CHUNK_MASK) << CHUNK_SHIFT) | (tx & CHUNK_MASK);
+        int old = chunk.ids[i];
+        if (old == id) {
+            return;
+        }
+        if (old == 0) {
+            chunk.count++;
+        } else if (id == 0) {
+            chunk.count--;
+        }
+        chunk.ids[i] = (short) id;
+        chunk.dirty = true;
+        version++;
+    }
+
+    /**
+     * Sets every tile in a rectangle to the same id.
+     * @param fromX the first column
+     * @param fromY the first row
+     * @param toX the last column, inclusive
+     * @param toY the last row, inclusive
+     * @param id the id of the tiles, or <code>0</code> to clear them
+     */
+    public void fill(int fromX, int fromY, int toX, int toY, int id) {
+        for (int ty = fromY; ty <= toY; ty++) {
+            for (int tx = fromX; tx <= toX; tx++) {
+                setTile(tx, ty, id);
+            }
+        }
+    }
+
+    /**
+     * Returns whether a tile is solid. Tiles outside the map aren't.
+     * @param tx the column of the tile
+     * @param ty the row of the tile
+     * @return true if the tile is solid
+     */
+    public boolean isSolid(int tx, int ty) {
+        return solid[getTile(tx, ty)];
+    }
+
+    /**
+     * Returns whether the tile under a point is solid.
+     * @param x the x coordinate, in metres
+     * @param y the y coordinate, in metres
+     * @return true if the tile is solid
+     */
+    public boolean isSolidAt(double x, double y) {
+        return isSolid(toTileX(x), toTileY(y));
+    }
+
+    /**
+     * Returns whether any solid tile overlaps a rectangle.
+     * @param minX the left of the rectangle, in metres
+     * @param minY the bottom of the rectangle, in metres
+     * @param maxX the right of the rectangle, in metres
+     * @param maxY the top of the rectangle, in metres
+     * @return true if a solid tile overlaps the rectangle
+     */
+    public boolean isSolid(double minX, double minY, double maxX, double maxY) {
+        int tx1 = toTileX(maxX), ty1 = toTileY(maxY);
+        for (int ty = toTileY(minY); ty <= ty1; ty++) {
+            for (int tx = toTileX(minX); tx <= tx1; tx++) {
+                if (isSolid(tx, ty)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Moves a box that has just been stepped out of the solid tiles it ran
+     * into on the way from its previous position, and stops it along the
+     * axes it hit something. The box is swept, so fast boxes don't tunnel
+     * through thin walls: first vertically, then horizontally.
+     * @param prevX the left of the box before the step, in metres
+     * @param prevY the bottom of the box before the step, in metres
+     * @param width the width of the box, in metres
+     * @param height the height of the box, in metres
+     * @param state the left, bottom, x velocity and y velocity of the box
+     *              after the step, updated in place
+     * @return a combination of {@link #LANDED}, {@link #HIT_CEILING} and
+     * {@link #HIT_WALL}, or <code>0</code> if the box hit nothing
+     */
+    public int collide(double prevX, double prevY, double width, double height, double[] state) {
+        double x = state[0], y = state[1];
+        int result = 0;
+
+        // vertically, over the columns the box covered before it moved sideways
+        int tx0 = toTileX(prevX + EPSILON), tx1 = toTileX(prevX + width - EPSILON);
+        if (y < prevY) {
+            for (int row = toTileY(prevY + EPSILON) - 1, last = toTileY(y); row >= last; row--) {
+                if (isRowSolid(row, tx0, tx1)) {
+                    y = (row + 1) * tileSize;
+                    state[3] = 0;
+                    result |= LANDED;
+                    break;
+                }
+            }
+        } else if (y > prevY) {
+            for (int row = toTileY(prevY + height - EPSILON) + 1, last = toTileY(y + height - EPSILON); row <= last; row++) {
+                if (isRowSolid(row, tx0, tx1)) {
+                    y = row * tileSize - height;
+                    state[3] = 0;
+                    result |= HIT_CEILING;
+                    break;
+                }
+            }
+        }
+
+        // horizontally, over the rows the box covers now
+        int ty0 = toTileY(y + EPSILON), ty1 = toTileY(y + height - EPSILON);
+        if (x < prevX) {
+            for (int column = toTileX(prevX + EPSILON) - 1, last = toTileX(x); column >= last; column--) {
+                if (isColumnSolid(column, ty0, ty1)) {
+                    x = (column + 1) * tileSize;
+                    state[2] = 0;
+                    result |= HIT_WALL;
+                    break;
+                }
+            }
+        } else if (x > prevX) {
+            for (int column = toTileX(prevX + width - EPSILON) + 1, last = toTileX(x + width - EPSILON); column <= last; column++) {
+                if (isColumnSolid(column, ty0, ty1)) {
+                    x = column * tileSize - width;
+                    state[2] = 0;
+                    result |= HIT_WALL;
+                    break;
+                }
+            }
+        }
+
+        state[0] = x;
+        state[1] = y;
+        return result;
+    }
+
+    private boolean isRowSolid(int row, int fromX, int toX) {
+        for (int tx = fromX; tx <= toX; tx++) {
+            if (isSolid(tx, row)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isColumnSolid(int column, int fromY, int toY) {
+        for (int ty = fromY; ty <= toY; ty++) {
+            if (isSolid(column, ty)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the column of the tiles at an x coordinate.
+     * @param x the x coordinate, in metres
+     * @return the column
+     */
+    public int toTileX(double x) {
+        return (int) Math.floor(x / tileSize);
+    }
+
+    /**
+     * Returns the row of the tiles at a y coordinate.
+     * @param y the y coordinate, in metres
+     * @return the row
+     */
+    public int toTileY(double y) {
+        return (int) Math.floor(y / tileSize);
+    }
+
+    /**
+     * Draws the chunks of this map that overlap the canvas, rebuilding the
+     * cached images of chunks that changed. Doesn't clear the canvas.
+     * @param gc the graphics context to draw with
+     * @param canvasWidth the width of the canvas, in pixels
+     * @param canvasHeight the height of the canvas, in pixels
+     * @param originX the x coordinate of the world drawn at the left of the canvas, in metres
+     * @param originY the y coordinate of the world drawn at the bottom of the canvas, in metres
+     */
+    public void render(GraphicsContext gc, double canvasWidth, double canvasHeight, double originX, double originY) {
+        double chunkMetres = CHUNK_SIZE * tileSize;
+        int cx0 = Math.max(0, (int) Math.floor(originX / chunkMetres));
+        int cy0 = Math.max(0, (int) Math.floor(originY / chunkMetres));
+        int cx1 = Math.min(chunksX - 1, (int) Math.floor((originX + canvasWidth / Physics.PPM) / chunkMetres));
+        int cy1 = Math.min(chunksY - 1, (int) Math.floor((originY + canvasHeight / Physics.PPM) / chunkMetres));
+        double size = chunkMetres * Physics.PPM;
+
+        for (int cy = cy0; cy <= cy1; cy++) {
+            for (int cx = cx0; cx <= cx1; cx++) {
+                Chunk chunk = chunks[cy * chunksX + cx];
+                if (chunk == null || chunk.count == 0) {
+                    continue;
+                }
+                double x = (cx * chunkMetres - originX) * Physics.PPM;
+                double y = canvasHeight - ((cy + 1) * chunkMetres - originY) * Physics.PPM;
+                gc.drawImage(chunk.getImage(tileSet), x, y, size, size);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of bytes the tile ids and cached images of this
+     * map take, roughly.
+     * @return the estimated size of this map, in bytes
+     */
+    public long estimateMemory() {
+        long pixels = CHUNK_SIZE * tileSet.getTileSize();
+        long bytes = chunks.length * 4L;
+        for (Chunk chunk : chunks) {
+            if (chunk != null) {
+                bytes += chunk.ids.length * 2L + (chunk.image != null ? pixels * pixels * 4 : 0);
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Drops the cached images of every chunk, keeping the tiles. The images
+     * are rebuilt the next time their chunks are rendered.
+     */
+    public void releaseImages() {
+        for (Chunk chunk : chunks) {
+            if (chunk != null) {
+                chunk.image = null;
+                chunk.dirty = true;
+            }
+        }
+    }
+
+    private static final class Chunk {
+
+        // row-major, bottom row first
+        final short[] ids = new short[CHUNK_SIZE * CHUNK_SIZE];
+        int count = 0;
+        WritableImage image;
+        boolean dirty = true;
+
+        WritableImage getImage(TileSet tileSet) {
+            if (!dirty) {
+                return image;
+            }
+            int tile = tileSet.getTileSize();
+            int size = CHUNK_SIZE * tile;
+            if (image == null) {
+                image = new WritableImage(size, size);
+            }
+            PixelWriter writer = image.getPixelWriter();
+            PixelReader reader = tileSet.getImage().getPixelReader();
+            int[] blank = new int[tile * tile];
+            for (int ly = 0; ly < CHUNK_SIZE; ly++) {
+                // images go down, rows go up
+                int py = (CHUNK_SIZE - 1 - ly) * tile;
+                for (int lx = 0; lx < CHUNK_SIZE; lx++) {
+                    int id = ids[(ly << CHUNK_SHIFT) | lx];
+                    int px = lx * tile;
+                    if (id == 0) {
+                        writer.setPixels(px, py, tile, tile, PixelFormat.getIntArgbPreInstance(), blank, 0, tile);
+                    } else {
+                        writer.setPixels(px, py, tile, tile, reader, tileSet.getSourceX(id), tileSet.getSourceY(id));
+                    }
+                }
+            }
+            dirty = false;
+            return image;
+        }
+
+    }
+
+}
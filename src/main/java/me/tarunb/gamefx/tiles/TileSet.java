@@ -0,0 +1,145 @@
+/**
+ * GameFX
+ * <p>
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2016 Tarun Boddupalli
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package me.tarunb.gamefx.tiles;
+
+import javafx.scene.image.Image;
+import me.tarunb.gamefx.graphics.ImageCache;
+
+/**
+ * A sheet of equally sized tiles, and which of them are solid. Tiles are
+ * numbered from <code>1</code>, left to right then top to bottom; tile
+ * <code>0</code> is always empty.
+ */
+public class TileSet {
+
+    private final Image image;
+    private final int tileSize;
+    private final int columns;
+    private final int count;
+
+    // indexed by tile id, shared with the maps that use this set
+    final boolean[] solid;
+
+    /**
+     * Constructs a tile set from an image.
+     * @param image the sheet of tiles
+     * @param tileSize the width and height of one tile, in pixels
+     */
+    public TileSet(Image image, int tileSize) {
+        if (tileSize < 1) {
+            throw new IllegalArgumentException("tileSize must be at least 1");
+        }
+        this.image = image;
+        this.tileSize = tileSize;
+        this.columns = (int) image.getWidth() / tileSize;
+        this.count = columns * ((int) image.getHeight() / tileSize);
+        if (count > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("A tile set can hold at most " + Short.MAX_VALUE + " tiles");
+        }
+        this.solid = new boolean[count + 1];
+    }
+
+    /**
+     * Constructs a tile set from an image file, loaded through the {@link ImageCache}.
+     * @param fileName the file name of the sheet of tiles
+     * @param tileSize the width and height of one tile, in pixels
+     */
+    public TileSet(String fileName, int tileSize) {
+        this(ImageCache.get(fileName), tileSize);
+    }
+
+    public Image getImage() {
+        return image;
+    }
+
+    /**
+     * Returns the width and height of one tile.
+     * @return the tile size, in pixels
+     */
+    public int getTileSize() {
+        return tileSize;
+    }
+
+    /**
+     * Returns the number of tiles in this set, not counting the empty tile.
+     * @return the number of tiles
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * Returns the x coordinate of a tile in the sheet.
+     * @param id the id of the tile, from <code>1</code>
+     * @return the left of the tile, in pixels
+     */
+    public int getSourceX(int id) {
+        return (id - 1) % columns * tileSize;
+    }
+
+    /**
+     * Returns the y coordinate of a tile in the sheet.
+     * @param id the id of the tile, from <code>1</code>
+     * @return the top of the tile, in pixels
+     */
+    public int getSourceY(int id) {
+        return (id - 1) / columns * tileSize;
+    }
+
+    public boolean isSolid(int id) {
+        return solid[id];
+    }
+
+    /**
+     * Sets whether entities collide with a tile.
+     * @param id the id of the tile
+     * @param solid true if the tile is solid
+     * @return this tile set
+     */
+    public TileSet setSolid(int id, boolean solid) {
+        if (id < 1 || id > count) {
+            throw new IllegalArgumentException("Tile " + id + " isn't in the set");
+        }
+        this.solid[id] = solid;
+        return this;
+    }
+
+    /**
+     * Sets whether entities collide with a range of tiles.
+     * @param from the id of the first tile
+     * @param to the id of the last tile, inclusive
+     * @param solid true if the tiles are solid
+     * @return this tile set
+     */
+    public TileSet setSolid(int from, int to, boolean solid) {
+        for (int id = from; id <= to; id++) {
+            setSolid(id, solid);
+        }
+        return this;
+    }
+
+}
@@ -0,0 +1,210 @@
+/**
+ * GameFX
+ * <p>
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2016 Tarun Boddupalli
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package me.tarunb.gamefx.view;
+
+import javafx.geometry.Rectangle2D;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
+import me.tarunb.gamefx.entity.Entity;
+import me.tarunb.gamefx.physics.AABB;
+import me.tarunb.gamefx.physics.Physics;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+
+/**
+ * Draws the sprites of many entities onto a single {@link Canvas}.
+ * Entities are drawn in order of their {@link Entity#getLayer() layer},
+ * and within a layer they are grouped by image, so consecutive draws
+ * share as much state as possible.
+ * <p>
+ * The draw order is kept between frames, and only sorted again when
+ * entities are added or removed, or change their layer or image.
+ */
+public class CanvasRenderer {
+
+    private static final Comparator<Entity> DRAW_ORDER = (a, b) -> {
+        if (a.getLayer() != b.getLayer()) {
+            return Integer.compare(a.getLayer(), b.getLayer());
+        }
+        return Integer.compare(System.identityHashCode(a.getSprite().getImage()),
+                System.identityHashCode(b.getSprite().getImage()));
+    };
+
+    private final Canvas canvas;
+
+    // the entities as of the last frame, in the order of the collection, to notice when they change
+    private Entity[] members = new Entity[256];
+    private int size = 0;
+    // the entities in draw order, with the layer and image each was sorted by
+    private Entity[] order = new Entity[256];
+    private int[] layers = new int[256];
+    private Image[] images = new Image[256];
+    private final AABB bounds = new AABB();
+
+    public CanvasRenderer(Canvas canvas) {
+        this.canvas = canvas;
+    }
+
+    public Canvas getCanvas() {
+        return canvas;
+    }
+
+    /**
+     * Clears the canvas and draws every visible entity on it.
+     * @param entities the entities to draw
+     * @param alpha how far to interpolate between the previous and current
+     *              step, from <code>0</code> to <code>1</code>.
+     */
+    public void render(Collection<Entity> entities, double alpha) {
+        render(entities, alpha, 0, 0, null);
+    }
+
+    /**
+     * Clears the canvas and draws every visible entity on it, relative to a viewport.
+     * @param entities the entities to draw
+     * @param alpha how far to interpolate between the previous and current
+     *              step, from <code>0</code> to <code>1</code>.
+     * @param originX the x coordinate of the world drawn at the left of the canvas, in metres
+     * @param originY the y coordinate of the world drawn at the bottom of the canvas, in metres
+     * @param visibleRegion the region of the world to draw, or null to draw every entity
+     */
+    public void render(Collection<Entity> entities, double alpha, double originX, double originY, AABB visibleRegion) {
+        int sorted = size;
+        int changed = gather(entities);
+        if (changed == sorted) {
+            // only added to: the sorted order plus the new entities is merged in close to linear time
+            System.arraycopy(members, sorted, order, sorted, size - sorted);
+            sort();
+        } else if (changed >= 0) {
+            System.arraycopy(members, 0, order, 0, size);
+            sort();
+        } else if (!isSorted()) {
+            // the previous order is nearly right, which the merge sort also handles in close to linear time
+            sort();
+        }
+
+        GraphicsContext gc = canvas.getGraphicsContext2D();
+        double height = canvas.getHeight();
+        gc.clearRect(0, 0, canvas.getWidth(), height);
+
+        for (int i = 0, n = size; i < n; i++) {
+            Entity entity = order[i];
+            if (!entity.isVisible()
+                    || visibleRegion != null && !entity.getBounds(bounds).overlaps(visibleRegion)) {
+                continue;
+            }
+
+            ImageView imageView = entity.getSprite().getImageView();
+            Image image = imageView.getImage();
+            if (image == null) {
+                continue;
+            }
+
+            Rectangle2D viewport = imageView.getViewport();
+            double sx = 0, sy = 0, sw = image.getWidth(), sh = image.getHeight();
+            if (viewport != null) {
+                sx = viewport.getMinX();
+                sy = viewport.getMinY();
+                sw = viewport.getWidth();
+                sh = viewport.getHeight();
+            }
+
+            // same placement as a node: bottom-left corner at the entity's position
+            double w = Math.abs(sw * imageView.getScaleX());
+            double h = Math.abs(sh * imageView.getScaleY());
+            double x = (entity.getInterpolatedX(alpha) - originX) * Physics.PPM;
+            double y = height - (entity.getInterpolatedY(alpha) - originY) * Physics.PPM - h;
+            gc.drawImage(image, sx, sy, sw, sh, x, y, w, h);
+        }
+    }
+
+    /**
+     * Copies the entities into the member list.
+     * @return the first index at which the entities differ from last frame's, or -1 if they are the same
+     */
+    private int gather(Collection<Entity> entities) {
+        int changed = -1;
+        int n = 0;
+        for (Entity entity : entities) {
+            if (n == members.length) {
+                grow(n * 2);
+            }
+            if (members[n] != entity) {
+                members[n] = entity;
+                if (changed < 0) {
+                    changed = n;
+                }
+            }
+            n++;
+        }
+        if (n != size) {
+            if (n < size) {
+                Arrays.fill(members, n, size, null);
+                Arrays.fill(order, n, size, null);
+                Arrays.fill(images, n, size, null);
+            }
+            if (changed < 0) {
+                changed = Math.min(n, size);
+            }
+            size = n;
+        }
+        return changed;
+    }
+
+    /**
+     * Returns whether every entity still has the layer and image it was sorted by.
+     */
+    private boolean isSorted() {
+        for (int i = 0, n = size; i < n; i++) {
+            Entity entity = order[i];
+            if (entity.getLayer() != layers[i] || entity.getSprite().getImage() != images[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void sort() {
+        Arrays.sort(order, 0, size, DRAW_ORDER);
+        for (int i = 0, n = size; i < n; i++) {
+            layers[i] = order[i].getLayer();
+            images[i] = order[i].getSprite().getImage();
+        }
+    }
+
+    private void grow(int capacity) {
+        members = Arrays.copyOf(members, capacity);
+        order = Arrays.copyOf(order, capacity);
+        layers = Arrays.copyOf(layers, capacity);
+        images = Arrays.copyOf(images, capacity);
+    }
+
+}
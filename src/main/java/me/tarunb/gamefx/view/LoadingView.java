@@ -0,0 +1,70 @@
+/**
+ * GameFX
+ * <p>
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2016 Tarun Boddupalli
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package me.tarunb.gamefx.view;
+
+import javafx.geometry.Pos;
+import javafx.scene.control.ProgressBar;
+import javafx.scene.layout.StackPane;
+import javafx.scene.paint.Color;
+
+/**
+ * A plain view with a progress bar, shown while another view is preloaded.
+ * @see me.tarunb.gamefx.Game#setLoadingView(LoadingView)
+ */
+public class LoadingView extends View {
+
+    private final ProgressBar progressBar = new ProgressBar(0);
+
+    public LoadingView() {
+        this("loading", Color.BLACK);
+    }
+
+    public LoadingView(String id, Color backgroundColor) {
+        super(id, backgroundColor);
+        progressBar.setPrefWidth(240);
+        progressBar.setMouseTransparent(true);
+        StackPane.setAlignment(progressBar, Pos.CENTER);
+        getPane().getChildren().add(progressBar);
+    }
+
+    public double getProgress() {
+        return progressBar.getProgress();
+    }
+
+    /**
+     * Sets the fraction of the loading that is done.
+     * @param progress the progress, from <code>0</code> to <code>1</code>
+     */
+    public void setProgress(double progress) {
+        progressBar.setProgress(progress);
+    }
+
+    public ProgressBar getProgressBar() {
+        return progressBar;
+    }
+
+}
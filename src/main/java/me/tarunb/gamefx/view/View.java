@@ -27,53 +27,152 @@
 package me.tarunb.gamefx.view;
 
 import me.tarunb.gamefx.Utils;
+import me.tarunb.gamefx.ecs.ComponentStore;
+import me.tarunb.gamefx.ecs.Registry;
 import me.tarunb.gamefx.entity.Entity;
+import me.tarunb.gamefx.entity.World;
+import me.tarunb.gamefx.graphics.Animator;
+import me.tarunb.gamefx.graphics.AssetManifest;
+import me.tarunb.gamefx.graphics.ImageCache;
+import me.tarunb.gamefx.graphics.Sprite;
+import me.tarunb.gamefx.input.InputDispatcher;
+import me.tarunb.gamefx.input.InputQueue;
 import me.tarunb.gamefx.input.KeyHandler;
 import me.tarunb.gamefx.input.MouseHandler;
+import me.tarunb.gamefx.loop.GameLoop;
+import me.tarunb.gamefx.loop.VariableStepLoop;
+import me.tarunb.gamefx.metrics.FrameMetrics;
+import me.tarunb.gamefx.particles.ParticleEmitter;
+import me.tarunb.gamefx.particles.ParticleRenderer;
+import me.tarunb.gamefx.physics.Physics;
+import me.tarunb.gamefx.tiles.TileMap;
 import javafx.animation.AnimationTimer;
 import javafx.geometry.Pos;
+import javafx.scene.Node;
 import javafx.scene.Scene;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
 import javafx.scene.layout.Pane;
 import javafx.scene.layout.StackPane;
 import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.scene.text.Text;
 
-import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
 
 
 public class View extends Scene {
 
+    /**
+     * The rough number of bytes an entity and its node take,
+     * for {@link #estimateMemory()}.
+     */
+    public static final long ENTITY_BYTES = 1024;
+
+    // the rough number of bytes the animator keeps per animation
+    private static final long ANIMATION_BYTES = 128;
+
     private final String id;
     private StackPane pane = new StackPane();
 
-    // Concurrent so you can add entities from input handlers
-    private ConcurrentLinkedQueue<Entity> entities = new ConcurrentLinkedQueue<>();
+    private final World world = new World();
 
-    private KeyHandler keyHandler;
-    private MouseHandler mouseHandler;
+    private final InputDispatcher input = world.getInputDispatcher();
 
     public MouseHandler getMouseHandler() {
-        return mouseHandler;
+        return input.getMouseHandler();
     }
 
     public void setMouseHandler(MouseHandler mouseHandler) {
-        this.mouseHandler = mouseHandler;
+        input.setMouseHandler(mouseHandler);
     }
 
     public KeyHandler getKeyHandler() {
-        return keyHandler;
+        return input.getKeyHandler();
     }
 
     public void setKeyHandler(KeyHandler keyHandler) {
-        this.keyHandler = keyHandler;
+        input.setKeyHandler(keyHandler);
     }
 
-    private AnimationTimer animationTimer = new AnimationTimer() {
-        private long last = System.nanoTime();
+    /**
+     * Returns the dispatcher that fans the input events of this view out
+     * to the view's handlers and the handlers of its entities. Events are
+     * queued, and delivered at the start of the next tick.
+     * @return the {@link InputDispatcher} for this view.
+     */
+    public InputDispatcher getInputDispatcher() {
+        return input;
+    }
+
+    private GameLoop gameLoop = new VariableStepLoop();
+
+    private final Viewport viewport = new Viewport();
+
+    private RenderMode renderMode = RenderMode.NODES;
+    private CanvasRenderer canvasRenderer;
+
+    private TileMap tileMap;
+    private Canvas tileCanvas;
+    // what the tile canvas was last drawn with, so it is only redrawn when the view moves or a tile changes
+    private double tileOriginX = Double.NaN, tileOriginY, tileWidth, tileHeight;
+    private int tileVersion;
 
+    private Animator animator;
+    private Registry registry;
+
+    private final List<ParticleEmitter> emitters = new ArrayList<>();
+    private ParticleRenderer particleRenderer;
+    private ImageView particleView;
+
+    private final FrameMetrics metrics = new FrameMetrics();
+
+    private final AssetManifest assets = new AssetManifest();
+    private boolean prepared = false;
+    // the state of the entities dropped while this view was suspended
+    private ViewSnapshot snapshot;
+    private Text metricsOverlay;
+    private long overlayReport = -1;
+
+    private AnimationTimer animationTimer = new AnimationTimer() {
         @Override
         public void handle(long now) {
-            entities.forEach(e -> e.update((now - last) / 1e9));
-            last = now;
+            boolean measure = metrics.isEnabled();
+            gameLoop.frame(now, world);
+            long start = measure ? System.nanoTime() : 0;
+            double alpha = gameLoop.getAlpha();
+            viewport.update(getWidth(), getHeight(), alpha);
+            if (tileMap != null) {
+                renderTiles();
+            }
+            if (renderMode == RenderMode.CANVAS) {
+                canvasRenderer.render(world.getEntities(), alpha, viewport.getX(), viewport.getY(), viewport.getVisibleRegion());
+            } else {
+                world.sync(alpha, viewport.getX(), viewport.getY(), viewport.getVisibleRegion());
+                if (measure) {
+                    long end = System.nanoTime();
+                    metrics.add(FrameMetrics.Phase.SYNC, end - start);
+                    start = end;
+                }
+            }
+            if (!emitters.isEmpty()) {
+                particleView.setImage(particleRenderer.render((int) getWidth(), (int) getHeight(), emitters,
+                        viewport.getX(), viewport.getY()));
+            }
+            if (measure) {
+                metrics.add(FrameMetrics.Phase.RENDER, System.nanoTime() - start);
+                metrics.endFrame(now, world.getEntityCount());
+                if (metricsOverlay != null && metricsOverlay.isVisible() && metrics.getReports() != overlayReport) {
+                    overlayReport = metrics.getReports();
+                    metricsOverlay.setText(metrics.getSummary());
+                }
+            }
         }
 
     };
@@ -109,7 +208,403 @@ public class View extends Scene {
         return id;
     }
 
+    /**
+     * Returns the world that holds and steps the entities of this view.
+     * @return the {@link World} for this view.
+     */
+    public World getWorld() {
+        return world;
+    }
+
+    /**
+     * Returns the loop that decides how the entities in this view are stepped.
+     * @return the {@link GameLoop} for this view.
+     */
+    public GameLoop getGameLoop() {
+        return gameLoop;
+    }
+
+    /**
+     * Sets the loop that decides how the entities in this view are stepped.
+     * Defaults to a {@link VariableStepLoop}.
+     * @param gameLoop the new {@link GameLoop} for this view.
+     */
+    public void setGameLoop(GameLoop gameLoop) {
+        if (gameLoop == null) {
+            throw new NullPointerException("gameLoop cannot be null");
+        }
+        gameLoop.reset();
+        this.gameLoop = gameLoop;
+    }
+
+    /**
+     * Returns the viewport that decides which part of the world this view shows.
+     * @return the {@link Viewport} for this view.
+     */
+    public Viewport getViewport() {
+        return viewport;
+    }
+
+    public RenderMode getRenderMode() {
+        return renderMode;
+    }
+
+    /**
+     * Sets how the entities of this view are put on screen.
+     * In {@link RenderMode#CANVAS} mode, entity nodes are taken out of
+     * the scene graph and all sprites are drawn onto a single canvas.
+     * Defaults to {@link RenderMode#NODES}.
+     * @param renderMode the new render mode
+     */
+    public void setRenderMode(RenderMode renderMode) {
+        if (renderMode == this.renderMode) {
+            return;
+        }
+        if (renderMode == RenderMode.CANVAS) {
+            List<Node> others = new ArrayList<>();
+            for (Node node : pane.getChildren()) {
+                if (!(node instanceof Entity)) {
+                    others.add(node);
+                }
+            }
+            pane.getChildren().setAll(others);
+            if (canvasRenderer == null) {
+                Canvas canvas = new Canvas();
+                canvas.widthProperty().bind(widthProperty());
+                canvas.heightProperty().bind(heightProperty());
+                canvasRenderer = new CanvasRenderer(canvas);
+            }
+            pane.getChildren().add(getNodeIndex(), canvasRenderer.getCanvas());
+        } else {
+            pane.getChildren().remove(canvasRenderer.getCanvas());
+            pane.getChildren().addAll(getNodeIndex(), world.getEntities());
+        }
+        this.renderMode = renderMode;
+    }
+
+    /**
+     * Returns the animator that plays the sprite animations of this view.
+     * It is created on first use, and stepped after every tick of the
+     * view's world.
+     * @return the {@link Animator} of this view
+     */
+    public Animator getAnimator() {
+        if (animator == null) {
+            animator = new Animator();
+            world.addTickListener(animator);
+        }
+        return animator;
+    }
+
+    /**
+     * Returns the entity-component-system registry of this view. It is
+     * created on first use, and its systems run after every tick of the
+     * view's world, alongside the view's classic entities.
+     * @return the {@link Registry} of this view
+     */
+    public Registry getRegistry() {
+        if (registry == null) {
+            registry = new Registry();
+            world.addTickListener(registry);
+        }
+        return registry;
+    }
+
+    /**
+     * Returns the tile map drawn behind the entities of this view, or null.
+     * @return the {@link TileMap} of this view
+     */
+    public TileMap getTileMap() {
+        return tileMap;
+    }
+
+    /**
+     * Sets the tile map drawn behind the entities of this view. The entities
+     * of the view's world collide with its solid tiles.
+     * @param tileMap the new tile map, or null
+     */
+    public void setTileMap(TileMap tileMap) {
+        this.tileMap = tileMap;
+        world.setTileMap(tileMap);
+        if (tileMap != null && tileCanvas == null) {
+            tileCanvas = new Canvas();
+            tileCanvas.widthProperty().bind(widthProperty());
+            tileCanvas.heightProperty().bind(heightProperty());
+            tileCanvas.setMouseTransparent(true);
+            pane.getChildren().add(0, tileCanvas);
+        }
+        if (tileCanvas != null) {
+            tileCanvas.setVisible(tileMap != null);
+            tileOriginX = Double.NaN;
+        }
+    }
+
+    private void renderTiles() {
+        double x = viewport.getX(), y = viewport.getY();
+        double width = tileCanvas.getWidth(), height = tileCanvas.getHeight();
+        if (x == tileOriginX && y == tileOriginY && width == tileWidth && height == tileHeight
+                && tileMap.getVersion() == tileVersion) {
+            return;
+        }
+        GraphicsContext gc = tileCanvas.getGraphicsContext2D();
+        gc.clearRect(0, 0, width, height);
+        tileMap.render(gc, width, height, x, y);
+        tileOriginX = x;
+        tileOriginY = y;
+        tileWidth = width;
+        tileHeight = height;
+        tileVersion = tileMap.getVersion();
+    }
+
+    /**
+     * Adds a particle emitter to this view. The emitter is stepped with the
+     * world, and its particles are drawn over the entities.
+     * @param emitter the emitter to add
+     */
+    public void addEmitter(ParticleEmitter emitter) {
+        if (emitters.contains(emitter)) {
+            return;
+        }
+        if (particleRenderer == null) {
+            particleRenderer = new ParticleRenderer();
+            particleView = new ImageView();
+            particleView.setMouseTransparent(true);
+            // the particles go under the metrics overlay, which stays on top
+            pane.getChildren().add(metricsOverlay != null ? pane.getChildren().indexOf(metricsOverlay)
+                    : pane.getChildren().size(), particleView);
+        }
+        emitters.add(emitter);
+        world.addTickListener(emitter);
+    }
+
+    public void removeEmitter(ParticleEmitter emitter) {
+        if (emitters.remove(emitter)) {
+            world.removeTickListener(emitter);
+            if (emitters.isEmpty()) {
+                particleView.setImage(null);
+            }
+        }
+    }
+
+    /**
+     * Returns the renderer that draws the particles of this view, or null if
+     * no emitter was ever added.
+     * @return the {@link ParticleRenderer} for this view
+     */
+    public ParticleRenderer getParticleRenderer() {
+        return particleRenderer;
+    }
+
+    /**
+     * Returns the frame timings of this view. They are only collected
+     * after {@link #setMetricsEnabled(boolean)} is set.
+     * @return the {@link FrameMetrics} for this view
+     */
+    public FrameMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Sets whether the frames of this view are measured. Defaults to false.
+     * @param enabled true to measure frames
+     */
+    public void setMetricsEnabled(boolean enabled) {
+        metrics.setEnabled(enabled);
+        world.setMetrics(enabled ? metrics : null);
+    }
+
+    public boolean isMetricsOverlayVisible() {
+        return metricsOverlay != null && metricsOverlay.isVisible();
+    }
+
+    /**
+     * Shows the metrics of this view in the top-left corner, updated once
+     * per report interval. Showing the overlay enables metrics.
+     * @param visible true to show the overlay
+     */
+    public void setMetricsOverlayVisible(boolean visible) {
+        if (visible) {
+            setMetricsEnabled(true);
+            if (metricsOverlay == null) {
+                metricsOverlay = new Text();
+                metricsOverlay.setFont(Font.font("Monospaced", 12));
+                metricsOverlay.setFill(Color.LIME);
+                metricsOverlay.setMouseTransparent(true);
+                metricsOverlay.setManaged(false);
+                metricsOverlay.setLayoutX(8);
+                metricsOverlay.setLayoutY(16);
+                pane.getChildren().add(metricsOverlay);
+            }
+            metricsOverlay.setVisible(true);
+            // above anything added straight to the pane since
+            metricsOverlay.toFront();
+        } else if (metricsOverlay != null) {
+            metricsOverlay.setVisible(false);
+        }
+    }
+
+    /**
+     * Returns the assets this view needs before it is shown. Add to it in
+     * the constructor, and the {@link ViewManager} decodes them in the
+     * background when the view is preloaded.
+     * @return the {@link AssetManifest} of this view
+     * @see ViewManager#preload(String)
+     */
+    public AssetManifest getAssets() {
+        return assets;
+    }
+
+    /**
+     * Returns whether {@link #onPrepare()} has run.
+     * @return true if this view is warm, and can be shown without stalling
+     */
+    public boolean isPrepared() {
+        return prepared;
+    }
+
+    /**
+     * Called once on the FX thread, after the assets of this view are loaded
+     * and before the view is first shown. Build the entities of this view
+     * here rather than in {@link #onBeforeLoad()}, so that switching to a
+     * preloaded view doesn't stall.
+     * <p>
+     * A suspended view is prepared again, after its entities, emitters,
+     * animator and registry were dropped, so add all of them here.
+     */
+    protected void onPrepare() {}
+
+    void prepare() {
+        if (!prepared) {
+            prepared = true;
+            onPrepare();
+            if (snapshot != null) {
+                onRestore(snapshot);
+                snapshot = null;
+            }
+        }
+    }
+
+    /**
+     * Returns whether this view has been suspended by the {@link ViewManager},
+     * and hasn't been prepared again since.
+     * @return true if this view is suspended
+     * @see ViewPolicy#SNAPSHOT
+     */
+    public boolean isSuspended() {
+        return snapshot != null;
+    }
+
+    /**
+     * Saves the state of this view before it is suspended. By default, this
+     * saves the physics state of every entity, in order.
+     * @return the snapshot to hand to {@link #onRestore(ViewSnapshot)}
+     */
+    protected ViewSnapshot onSnapshot() {
+        return ViewSnapshot.capture(world.getEntities());
+    }
+
+    /**
+     * Restores the state of this view after it has been prepared again.
+     * By default, this restores the physics state of the entities rebuilt by
+     * {@link #onPrepare()}, in the order they were added.
+     * @param snapshot the snapshot taken when this view was suspended
+     */
+    protected void onRestore(ViewSnapshot snapshot) {
+        int i = 0;
+        for (Entity entity : world.getEntities()) {
+            if (i == snapshot.getEntityCount()) {
+                break;
+            }
+            snapshot.restore(i++, entity);
+        }
+    }
+
+    /**
+     * Saves the state of this view, then drops its entities, emitters,
+     * animator and registry, which {@link #onPrepare()} builds again, and
+     * releases its assets and cached images.
+     */
+    void suspend() {
+        if (snapshot != null || !prepared) {
+            return;
+        }
+        snapshot = onSnapshot();
+        for (Entity entity : new ArrayList<>(world.getEntities())) {
+            entity.removeFromParentView();
+        }
+        for (ParticleEmitter emitter : new ArrayList<>(emitters)) {
+            removeEmitter(emitter);
+        }
+        if (particleRenderer != null) {
+            particleRenderer.release();
+        }
+        if (animator != null) {
+            world.removeTickListener(animator);
+            animator = null;
+        }
+        if (registry != null) {
+            // destroying the entities takes the nodes of the sprite system off the pane
+            registry.clear();
+            world.removeTickListener(registry);
+            registry = null;
+        }
+        if (tileMap != null) {
+            tileMap.releaseImages();
+        }
+        assets.unload();
+        prepared = false;
+    }
+
+    /**
+     * Returns the number of bytes this view keeps alive, roughly: its
+     * decoded images, its entities, registry entities, animations and
+     * particles, its tile map, and its snapshot if it is suspended.
+     * Override this to account for other large state.
+     * @return the estimated size of this view, in bytes
+     */
+    public long estimateMemory() {
+        Set<Image> images = Collections.newSetFromMap(new IdentityHashMap<>());
+        images.addAll(assets.getLoadedImages());
+        for (Entity entity : world.getEntities()) {
+            Image image = entity.getSprite().getImage();
+            if (image != null) {
+                images.add(image);
+            }
+        }
+        long bytes = (long) world.getEntityCount() * ENTITY_BYTES;
+        if (registry != null) {
+            ComponentStore<Sprite> sprites = registry.store(Sprite.class);
+            for (int i = 0, n = sprites.size(); i < n; i++) {
+                Image image = sprites.getAt(i).getImage();
+                if (image != null) {
+                    images.add(image);
+                }
+            }
+            bytes += (long) registry.size() * ENTITY_BYTES;
+        }
+        if (animator != null) {
+            bytes += (long) animator.size() * ANIMATION_BYTES;
+        }
+        for (ParticleEmitter emitter : emitters) {
+            bytes += emitter.estimateMemory();
+        }
+        if (particleRenderer != null) {
+            bytes += particleRenderer.estimateMemory();
+        }
+        for (Image image : images) {
+            bytes += ImageCache.sizeOf(image);
+        }
+        if (snapshot != null) {
+            bytes += snapshot.estimateMemory();
+        }
+        if (tileMap != null) {
+            bytes += tileMap.estimateMemory();
+        }
+        return bytes;
+    }
+
     protected void onBeforeLoad() {
+        gameLoop.reset();
         animationTimer.start();
     }
 
@@ -128,8 +623,32 @@ public class View extends Scene {
      * @param newEntity The entity to add
      */
     public void addEntity(Entity newEntity) {
-        entities.add(newEntity);
-        pane.getChildren().add(newEntity);
+        world.addEntity(newEntity);
+        if (renderMode == RenderMode.NODES) {
+            pane.getChildren().add(getNodeIndex(), newEntity);
+        }
+    }
+
+    /**
+     * Adds a node that is drawn with the entities, under the particles and
+     * the metrics overlay, which always stay on top.
+     * @param node the node to add
+     */
+    public void addNode(Node node) {
+        pane.getChildren().add(getNodeIndex(), node);
+    }
+
+    /**
+     * Returns the index in the pane that entity nodes are inserted at: just
+     * below the particles and the metrics overlay, which are kept last.
+     */
+    private int getNodeIndex() {
+        List<Node> children = pane.getChildren();
+        int index = children.size();
+        while (index > 0 && (children.get(index - 1) == particleView || children.get(index - 1) == metricsOverlay)) {
+            index--;
+        }
+        return index;
     }
 
     /**
@@ -139,75 +658,42 @@ public class View extends Scene {
      * @param entity The entity to remove
      */
     public void removeEntity(Entity entity) {
-        entities.remove(entity);
+        world.removeEntity(entity);
+        if (entity.getParent() == pane) {
+            pane.getChildren().remove(entity);
+        }
     }
 
-    private void registerInputHandlers() {
-        setOnMousePressed(e -> {
-            if (mouseHandler != null) {
-                mouseHandler.pressed(e.getButton());
-            }
-            entities.forEach(entity -> {
-                if (entity.getMouseHandler() != null) {
-                    entity.getMouseHandler().pressed(e.getButton());
-                }
-            });
-        });
-
-        setOnMouseReleased(e -> {
-            if (mouseHandler != null) {
-                mouseHandler.released(e.getButton());
-            }
-            entities.forEach(entity -> {
-                if (entity.getMouseHandler() != null) {
-                    entity.getMouseHandler().released(e.getButton());
-                }
-            });
-        });
-
-        setOnMouseClicked(e -> {
-            if (mouseHandler != null) {
-                mouseHandler.clicked(e);
-            }
-            entities.forEach(entity -> {
-                if (entity.getMouseHandler() != null) {
-                    entity.getMouseHandler().clicked(e);
-                }
-            });
-        });
-
-        setOnKeyPressed(e -> {
-            if (keyHandler != null) {
-                keyHandler.pressed(e.getCode(), Utils.getKeyModifier(e));
-            }
-            entities.forEach(entity -> {
-                if (entity.getKeyHandler() != null) {
-                    entity.getKeyHandler().pressed(e.getCode(), Utils.getKeyModifier(e));
-                }
-            });
-        });
+    /**
+     * Converts a horizontal scene coordinate, in pixels, to a world coordinate, in metres.
+     * @param sceneX the scene coordinate
+     * @return the world coordinate
+     */
+    public double toWorldX(double sceneX) {
+        return viewport.getX() + sceneX / Physics.PPM;
+    }
 
-        setOnKeyReleased(e -> {
-            if (keyHandler != null) {
-                keyHandler.released(e.getCode());
-            }
-            entities.forEach(entity -> {
-                if (entity.getKeyHandler() != null) {
-                    entity.getKeyHandler().released(e.getCode());
-                }
-            });
-        });
+    /**
+     * Converts a vertical scene coordinate, in pixels from the top, to a
+     * world coordinate, in metres from the bottom.
+     * @param sceneY the scene coordinate
+     * @return the world coordinate
+     */
+    public double toWorldY(double sceneY) {
+        return viewport.getY() + (getHeight() - sceneY) / Physics.PPM;
+    }
 
-        setOnKeyTyped(e -> {
-            if (keyHandler != null) {
-                keyHandler.typed(e.getCode(), Utils.getKeyModifier(e));
-            }
-            entities.forEach(entity -> {
-                if (entity.getKeyHandler() != null) {
-                    entity.getKeyHandler().typed(e.getCode(), Utils.getKeyModifier(e));
-                }
-            });
-        });
+    private void registerInputHandlers() {
+        InputQueue queue = input.getQueue();
+        setOnMousePressed(e -> queue.mousePressed(e.getButton(), toWorldX(e.getSceneX()), toWorldY(e.getSceneY())));
+        setOnMouseReleased(e -> queue.mouseReleased(e.getButton(), toWorldX(e.getSceneX()), toWorldY(e.getSceneY())));
+        setOnMouseClicked(e -> queue.mouseClicked(e, toWorldX(e.getSceneX()), toWorldY(e.getSceneY())));
+        setOnMouseMoved(e -> queue.mouseMoved(toWorldX(e.getSceneX()), toWorldY(e.getSceneY())));
+        setOnMouseDragged(e -> queue.mouseDragged(e.getButton(), toWorldX(e.getSceneX()), toWorldY(e.getSceneY())));
+        setOnMouseExited(e -> queue.mouseExited());
+        setOnKeyPressed(e -> queue.keyPressed(e.getCode(), Utils.getKeyModifier(e)));
+        setOnKeyReleased(e -> queue.keyReleased(e.getCode()));
+        setOnKeyTyped(e -> queue.keyTyped(e.getCode(), Utils.getKeyModifier(e)));
     }
 
 
@@ -26,26 +26,60 @@
 
 package me.tarunb.gamefx.view;
 
+import javafx.application.Platform;
 import javafx.stage.Stage;
+import me.tarunb.gamefx.Callback;
+import me.tarunb.gamefx.graphics.AssetLoader;
+import me.tarunb.gamefx.graphics.AssetManifest;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
+/**
+ * Keeps the registered views of a game, and switches between them.
+ * <p>
+ * Views that aren't shown are kept by default. Once their estimated memory
+ * goes past {@link #getMemoryBudget()}, the least recently used ones are
+ * suspended according to their {@link ViewPolicy}, so games with many
+ * large views stay inside a fixed heap.
+ */
 public class ViewManager {
 
-    private static Map<String, View> registeredViews = new HashMap<>();
+    // in access order, so the least recently used view comes first
+    private static LinkedHashMap<String, Registration> registeredViews = new LinkedHashMap<>(16, 0.75f, true);
 
-    private static View defaultView = new View();
+    private static final View blankView = new View();
+    private static String defaultViewId = null;
     private static View currentView = null;
 
+    private static long memoryBudget = Long.MAX_VALUE;
+
+    // views being loaded in the background, only touched on the FX thread
+    private static Map<String, CompletableFuture<View>> preloading = new HashMap<>();
+
+    /**
+     * Shows the view with the specified id. If the view hasn't been
+     * preloaded, its assets are loaded and it is prepared right here,
+     * which blocks the FX thread until they are. If a preload of the view
+     * is still running, this waits for the tasks it has started.
+     * @param id the id of the view
+     * @param stage the stage to show the view on
+     * @see #preload(String)
+     */
     public static void setView(String id, Stage stage) {
-        View newView = getView(id);
-        if (newView == null) {
-            throw new NullPointerException("View with id " + id + " doesn't exist");
+        View newView = requireView(id);
+
+        AssetManifest assets = newView.getAssets();
+        if (!assets.isLoaded()) {
+            assets.loadNow();
         }
+        newView.prepare();
 
         if (currentView != null) {
             currentView.onBeforeUnload();
@@ -57,22 +91,245 @@ public class ViewManager {
             currentView.onAfterUnload();
         }
         currentView = newView;
+        trim();
     }
 
+    /**
+     * Shows the view with the specified id once it has been preloaded,
+     * leaving the current view up in the meantime. Must be called on the FX thread.
+     * @param id the id of the view
+     * @param stage the stage to show the view on
+     * @param progress called on the FX thread with the fraction of the
+     *                 view's assets loaded so far, or null
+     * @return a future that completes on the FX thread once the view is shown
+     */
+    public static CompletableFuture<View> setViewWhenReady(String id, Stage stage, Callback<Double> progress) {
+        return preload(id, progress).thenApply(view -> {
+            setView(id, stage);
+            return view;
+        });
+    }
+
+    /**
+     * Loads the assets of the view with the specified id in the background,
+     * then prepares the view on the FX thread, so that a later
+     * {@link #setView(String, Stage)} swaps it in without stalling.
+     * Must be called on the FX thread.
+     * @param id the id of the view
+     * @return a future that completes on the FX thread once the view is warm
+     */
+    public static CompletableFuture<View> preload(String id) {
+        return preload(id, null);
+    }
+
+    /**
+     * Loads the assets of the view with the specified id in the background,
+     * then prepares the view on the FX thread. Must be called on the FX thread.
+     * @param id the id of the view
+     * @param progress called on the FX thread with the fraction of the
+     *                 view's assets loaded so far, or null
+     * @return a future that completes on the FX thread once the view is warm
+     */
+    public static CompletableFuture<View> preload(String id, Callback<Double> progress) {
+        View view = requireView(id);
+        if (view.isPrepared() && view.getAssets().isLoaded()) {
+            if (progress != null) {
+                progress.run(1.0);
+            }
+            return CompletableFuture.completedFuture(view);
+        }
+
+        CompletableFuture<View> pending = preloading.get(id);
+        if (pending != null) {
+            if (progress != null) {
+                // the first caller's loader reports the progress, this one only hears about the end
+                pending.thenRun(() -> progress.run(1.0));
+            }
+            return pending;
+        }
+
+        pending = AssetLoader.load(view.getAssets(), progress).thenApplyAsync(manifest -> {
+            preloading.remove(id);
+            view.prepare();
+            trim();
+            return view;
+        }, Platform::runLater);
+        pending.exceptionally(e -> {
+            Platform.runLater(() -> preloading.remove(id));
+            return null;
+        });
+        preloading.put(id, pending);
+        return pending;
+    }
+
+    /**
+     * Registers a view with the {@link ViewPolicy#KEEP} policy.
+     * @param view the view
+     */
     public static void registerView(View view) {
-        registeredViews.put(view.getId(), view);
+        registerView(view, ViewPolicy.KEEP);
+    }
+
+    /**
+     * Registers a view. Since it has no factory, a view registered this way
+     * is snapshotted rather than evicted under {@link ViewPolicy#EVICT}.
+     * @param view the view
+     * @param policy what to do with the view when memory runs short
+     */
+    public static void registerView(View view, ViewPolicy policy) {
+        Registration registration = new Registration(view.getId(), null, policy);
+        registration.view = view;
+        registeredViews.put(view.getId(), registration);
+    }
+
+    /**
+     * Registers a view that is built by a factory when it is first needed,
+     * and built again if it is evicted.
+     * @param id the id of the views the factory builds
+     * @param factory builds the view
+     * @param policy what to do with the view when memory runs short
+     */
+    public static void registerView(String id, Supplier<? extends View> factory, ViewPolicy policy) {
+        registeredViews.put(id, new Registration(id, factory, policy));
+    }
+
+    /**
+     * Suspends the view with the specified id according to its policy,
+     * unless it is shown or being preloaded.
+     * @param id the id of the view
+     */
+    public static void suspend(String id) {
+        Registration registration = registeredViews.get(id);
+        if (registration != null) {
+            suspend(registration);
+        }
+    }
+
+    public static long getMemoryBudget() {
+        return memoryBudget;
+    }
+
+    /**
+     * Sets the number of bytes the registered views may keep alive, going by
+     * {@link View#estimateMemory()}. Unlimited by default. A budget of
+     * <code>0</code> suspends every view as soon as it is left.
+     * @param memoryBudget the new budget, in bytes
+     */
+    public static void setMemoryBudget(long memoryBudget) {
+        ViewManager.memoryBudget = memoryBudget;
+        trim();
+    }
+
+    /**
+     * Returns the estimated number of bytes the registered views keep alive.
+     * @return the estimated memory of the views, in bytes
+     */
+    public static long getMemoryEstimate() {
+        long bytes = 0;
+        for (Registration registration : registeredViews.values()) {
+            if (registration.view != null) {
+                bytes += registration.view.estimateMemory();
+            }
+        }
+        return bytes;
     }
 
     public static View getDefaultView() {
-        return defaultView;
+        return defaultViewId == null ? blankView : getView(defaultViewId);
+    }
+
+    /**
+     * Returns the view that is currently shown, or null if none is.
+     * @return the current view
+     */
+    public static View getCurrentView() {
+        return currentView;
     }
 
     public static void setDefaultView(String defaultViewId) {
-        ViewManager.defaultView = getView(defaultViewId);
+        ViewManager.defaultViewId = defaultViewId;
     }
 
+    /**
+     * Returns the view with the specified id, building it if it was
+     * registered with a factory and hasn't been built or has been evicted.
+     * @param id the id of the view
+     * @return the view, or null if no view with that id is registered
+     */
     public static View getView(String id) {
-        return registeredViews.get(id);
+        Registration registration = registeredViews.get(id);
+        if (registration == null) {
+            return null;
+        }
+        if (registration.view == null) {
+            View view = registration.factory.get();
+            if (!view.getId().equals(id)) {
+                throw new IllegalStateException("Factory for view " + id + " built view " + view.getId());
+            }
+            registration.view = view;
+        }
+        return registration.view;
+    }
+
+    /**
+     * Suspends the least recently used views until the views fit in the budget.
+     */
+    private static void trim() {
+        if (memoryBudget == Long.MAX_VALUE) {
+            return;
+        }
+        long bytes = getMemoryEstimate();
+        for (Registration registration : new ArrayList<>(registeredViews.values())) {
+            if (bytes <= memoryBudget) {
+                break;
+            }
+            View view = registration.view;
+            if (view == null) {
+                continue;
+            }
+            long before = view.estimateMemory();
+            if (suspend(registration)) {
+                bytes -= before - (registration.view != null ? registration.view.estimateMemory() : 0);
+            }
+        }
+    }
+
+    private static boolean suspend(Registration registration) {
+        View view = registration.view;
+        if (view == null || view == currentView || registration.policy == ViewPolicy.KEEP
+                || preloading.containsKey(registration.id)) {
+            return false;
+        }
+        if (registration.policy == ViewPolicy.EVICT && registration.factory != null) {
+            view.getAssets().unload();
+            registration.view = null;
+        } else {
+            view.suspend();
+        }
+        return true;
+    }
+
+    private static class Registration {
+
+        final String id;
+        final Supplier<? extends View> factory;
+        final ViewPolicy policy;
+        View view;
+
+        Registration(String id, Supplier<? extends View> factory, ViewPolicy policy) {
+            this.id = id;
+            this.factory = factory;
+            this.policy = policy;
+        }
+
+    }
+
+    private static View requireView(String id) {
+        View view = getView(id);
+        if (view == null) {
+            throw new NullPointerException("View with id " + id + " doesn't exist");
+        }
+        return view;
     }
 
 }
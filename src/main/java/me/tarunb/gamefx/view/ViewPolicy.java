@@ -0,0 +1,57 @@
+/**
+ * GameFX
+ * <p>
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2016 Tarun Boddupalli
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package me.tarunb.gamefx.view;
+
+/**
+ * What the {@link ViewManager} does with a view that isn't shown once the
+ * registered views grow past the memory budget.
+ * @see ViewManager#setMemoryBudget(long)
+ */
+public enum ViewPolicy {
+
+    /**
+     * Keeps the view as it is, with its nodes, entities and images.
+     * Switching back to it is instant.
+     */
+    KEEP,
+
+    /**
+     * Saves the state of the view's entities in a compact {@link ViewSnapshot},
+     * then drops its entities, emitters, animations and registry, and
+     * releases its images. The view is prepared again and the snapshot
+     * restored when it is next shown.
+     */
+    SNAPSHOT,
+
+    /**
+     * Drops the view entirely, and builds a new one from its factory when
+     * it is next needed. Views registered without a factory are
+     * snapshotted instead.
+     */
+    EVICT
+
+}
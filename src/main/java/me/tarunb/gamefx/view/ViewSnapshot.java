@@ -0,0 +1,103 @@
+/**
+ * GameFX
+ * <p>
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2016 Tarun Boddupalli
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package me.tarunb.gamefx.view;
+
+import me.tarunb.gamefx.entity.Entity;
+import me.tarunb.gamefx.physics.Position;
+import me.tarunb.gamefx.physics.Vector;
+
+import java.util.Collection;
+
+/**
+ * The physics state of the entities of a suspended view: position,
+ * velocity and acceleration, packed into one <code>double[]</code> in the
+ * order the entities were added to the view.
+ * @see ViewPolicy#SNAPSHOT
+ */
+public class ViewSnapshot {
+
+    private static final int STRIDE = 6;
+
+    private final double[] state;
+    private final int entityCount;
+
+    private ViewSnapshot(double[] state, int entityCount) {
+        this.state = state;
+        this.entityCount = entityCount;
+    }
+
+    /**
+     * Saves the state of the specified entities.
+     * @param entities the entities, in order
+     * @return the snapshot
+     */
+    public static ViewSnapshot capture(Collection<Entity> entities) {
+        double[] state = new double[entities.size() * STRIDE];
+        int i = 0;
+        for (Entity entity : entities) {
+            if (i == state.length) {
+                break;
+            }
+            Position position = entity.getPosition();
+            Vector velocity = entity.getVelocity();
+            Vector acceleration = entity.getAcceleration();
+            state[i] = position.getX();
+            state[i + 1] = position.getY();
+            state[i + 2] = velocity.getX();
+            state[i + 3] = velocity.getY();
+            state[i + 4] = acceleration.getX();
+            state[i + 5] = acceleration.getY();
+            i += STRIDE;
+        }
+        return new ViewSnapshot(state, i / STRIDE);
+    }
+
+    public int getEntityCount() {
+        return entityCount;
+    }
+
+    /**
+     * Restores the saved state of an entity.
+     * @param index the index of the entity when the snapshot was taken
+     * @param entity the entity to restore the state into
+     */
+    public void restore(int index, Entity entity) {
+        int i = index * STRIDE;
+        entity.setPosition(new Position(state[i], state[i + 1]));
+        entity.setVelocity(new Vector(state[i + 2], state[i + 3]));
+        entity.setAcceleration(new Vector(state[i + 4], state[i + 5]));
+    }
+
+    /**
+     * Returns the number of bytes this snapshot takes, roughly.
+     * @return the estimated size of this snapshot, in bytes
+     */
+    public long estimateMemory() {
+        return 16 + state.length * 8L;
+    }
+
+}
@@ -0,0 +1,201 @@
+/**
+ * GameFX
+ * <p>
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2016 Tarun Boddupalli
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package me.tarunb.gamefx.view;
+
+import me.tarunb.gamefx.entity.Entity;
+import me.tarunb.gamefx.entity.UpdatePolicy;
+import me.tarunb.gamefx.physics.AABB;
+import me.tarunb.gamefx.physics.Physics;
+
+/**
+ * The camera of a {@link View}: the part of the world that it shows. The
+ * viewport's position is the point of the world drawn at the bottom-left
+ * corner of the view, and its size follows the size of the view.
+ * <p>
+ * With {@link #setCulling(boolean) culling} on, entities outside of the
+ * viewport, plus a margin, are hidden in node mode and skipped in canvas
+ * mode. Entities can also be updated less often the further they are from
+ * the viewport, see {@link #throttle(double, double, int)}.
+ * <p>
+ * Entities with a {@link Entity#setLiveTransform(boolean) live transform}
+ * ignore the viewport's position.
+ */
+public class Viewport {
+
+    public static final double DEFAULT_MARGIN = 1;
+
+    private double x = 0, y = 0;
+    private double width = 0, height = 0;
+    private double margin = DEFAULT_MARGIN;
+    private boolean culling = false;
+    private Entity target;
+
+    private final AABB visibleRegion = new AABB();
+
+    /**
+     * Returns the x coordinate of the world at the left of the view.
+     * @return the x coordinate, in metres
+     */
+    public double getX() {
+        return x;
+    }
+
+    /**
+     * Returns the y coordinate of the world at the bottom of the view.
+     * @return the y coordinate, in metres
+     */
+    public double getY() {
+        return y;
+    }
+
+    /**
+     * Moves the viewport so that the specified point of the world is drawn
+     * at the bottom-left corner of the view.
+     * @param x the x coordinate, in metres
+     * @param y the y coordinate, in metres
+     */
+    public void setPosition(double x, double y) {
+        this.x = x;
+        this.y = y;
+    }
+
+    /**
+     * Returns the width of the part of the world that is shown.
+     * @return the width, in metres
+     */
+    public double getWidth() {
+        return width;
+    }
+
+    /**
+     * Returns the height of the part of the world that is shown.
+     * @return the height, in metres
+     */
+    public double getHeight() {
+        return height;
+    }
+
+    public Entity getTarget() {
+        return target;
+    }
+
+    /**
+     * Keeps the specified entity in the centre of the view, every frame.
+     * @param target the entity to follow, or null to stop following
+     */
+    public void follow(Entity target) {
+        this.target = target;
+    }
+
+    public boolean isCulling() {
+        return culling;
+    }
+
+    /**
+     * Sets whether entities outside of the viewport are hidden. Defaults to false.
+     * @param culling true to hide entities outside of the viewport
+     */
+    public void setCulling(boolean culling) {
+        this.culling = culling;
+    }
+
+    public double getMargin() {
+        return margin;
+    }
+
+    /**
+     * Sets how far outside of the view an entity must be before it's culled,
+     * so entities don't pop in at the edges.
+     * @param margin the margin, in metres
+     */
+    public void setMargin(double margin) {
+        this.margin = margin;
+    }
+
+    /**
+     * Returns the region of the world that is shown, grown by the margin.
+     * @return the visible region, or null if culling is off
+     */
+    public AABB getVisibleRegion() {
+        return culling ? visibleRegion : null;
+    }
+
+    /**
+     * Returns the distance from a point of the world to the part of the
+     * world that is shown, or <code>0</code> if the point is shown.
+     * @param x the x coordinate, in metres
+     * @param y the y coordinate, in metres
+     * @return the distance, in metres
+     */
+    public double distanceTo(double x, double y) {
+        double dx = Math.max(0, Math.max(this.x - x, x - (this.x + width)));
+        double dy = Math.max(0, Math.max(this.y - y, y - (this.y + height)));
+        return dx == 0 ? dy : dy == 0 ? dx : Math.sqrt(dx*dx + dy*dy);
+    }
+
+    /**
+     * Returns a policy that updates entities every tick while they are
+     * within <code>near</code> metres of the viewport, every
+     * <code>farInterval</code> ticks within <code>far</code> metres,
+     * and suspends them beyond that.
+     * Pass it to {@link me.tarunb.gamefx.entity.World#setUpdatePolicy}.
+     * @param near the distance within which entities are updated every tick
+     * @param far the distance beyond which entities are suspended
+     * @param farInterval the number of ticks between updates in between
+     * @return the policy
+     */
+    public UpdatePolicy throttle(double near, double far, int farInterval) {
+        if (near > far) {
+            throw new IllegalArgumentException("near cannot be greater than far");
+        }
+        if (farInterval < 1) {
+            throw new IllegalArgumentException("farInterval must be at least 1");
+        }
+        return entity -> {
+            double distance = distanceTo(entity.getPosition().getX(), entity.getPosition().getY());
+            if (distance <= near) {
+                return UpdatePolicy.EVERY_TICK;
+            }
+            return distance <= far ? farInterval : UpdatePolicy.SUSPENDED;
+        };
+    }
+
+    /**
+     * Fits the viewport to the size of the view, and follows the target.
+     * Called by {@link View} every frame, before rendering.
+     */
+    void update(double viewWidth, double viewHeight, double alpha) {
+        width = viewWidth / Physics.PPM;
+        height = viewHeight / Physics.PPM;
+        if (target != null) {
+            x = target.getInterpolatedX(alpha) + target.getSprite().getWidth() / Physics.PPM / 2 - width / 2;
+            y = target.getInterpolatedY(alpha) + target.getSprite().getHeight() / Physics.PPM / 2 - height / 2;
+        }
+        visibleRegion.set(x - margin, y - margin, x + width + margin, y + height + margin);
+    }
+
+}